@@ -0,0 +1,116 @@
+package personal.gokul2411s.regular_automata;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * Finds any of a set of literals in one pass with the Aho-Corasick automaton. The failure links are folded into a
+ * dense transition table over char classes, so every input char costs one table lookup.
+ */
+public class AhoCorasick implements Prefilter {
+
+    @Getter
+    private final Set<String> literals;
+
+    private final CharClasses charClasses;
+
+    /**
+     * Row-major table of trie nodes and char classes. Node 0 is the root.
+     */
+    private final int[] transitions;
+
+    /**
+     * Whether some literal ends at each node.
+     */
+    private final boolean[] matching;
+
+    public AhoCorasick(Collection<String> literals) {
+        Preconditions.checkNotNull(literals);
+        Preconditions.checkArgument(!literals.isEmpty(), "No literals");
+        this.literals = Collections.unmodifiableSet(new LinkedHashSet<>(literals));
+
+        CharClasses.CharClassesBuilder classesBuilder = CharClasses.builder();
+        Set<Character> chars = new HashSet<>();
+        for (String literal : this.literals) {
+            Preconditions.checkArgument(!literal.isEmpty(), "Empty literal");
+            for (int i = 0; i < literal.length(); i++) {
+                if (chars.add(literal.charAt(i))) {
+                    classesBuilder.withDistinguishedChars(Collections.singletonList(literal.charAt(i)));
+                }
+            }
+        }
+        charClasses = classesBuilder.build();
+        int numClasses = charClasses.getNumClasses();
+
+        // Trie, with -1 for missing children.
+        int numNodes = 1 + this.literals.stream().mapToInt(String::length).sum();
+        int[] table = new int[numNodes * numClasses];
+        Arrays.fill(table, -1);
+        boolean[] terminal = new boolean[numNodes];
+        int nextNode = 1;
+        for (String literal : this.literals) {
+            int node = 0;
+            for (int i = 0; i < literal.length(); i++) {
+                int index = node * numClasses + charClasses.classOf(literal.charAt(i));
+                if (table[index] < 0) {
+                    table[index] = nextNode++;
+                }
+                node = table[index];
+            }
+            terminal[node] = true;
+        }
+
+        // BFS over the trie: a missing child of a node is the child of its failure node, which is shallower and so
+        // already complete.
+        int[] failures = new int[nextNode];
+        Queue<Integer> bfsNodes = new ArrayDeque<>();
+        for (int c = 0; c < numClasses; c++) {
+            if (table[c] < 0) {
+                table[c] = 0;
+            } else {
+                bfsNodes.add(table[c]);
+            }
+        }
+        while (!bfsNodes.isEmpty()) {
+            int node = bfsNodes.remove();
+            terminal[node] |= terminal[failures[node]];
+            for (int c = 0; c < numClasses; c++) {
+                int index = node * numClasses + c;
+                int failureTarget = table[failures[node] * numClasses + c];
+                if (table[index] < 0) {
+                    table[index] = failureTarget;
+                } else {
+                    failures[table[index]] = failureTarget;
+                    bfsNodes.add(table[index]);
+                }
+            }
+        }
+
+        transitions = Arrays.copyOf(table, nextNode * numClasses);
+        matching = Arrays.copyOf(terminal, nextNode);
+    }
+
+    /**
+     * Returns the index just past the first occurrence of any of the literals in the input, or -1.
+     */
+    public int endOfFirstIn(CharSequence input) {
+        int[] table = transitions;
+        CharClasses classes = charClasses;
+        int numClasses = classes.getNumClasses();
+        int node = 0;
+        for (int i = 0, n = input.length(); i < n; i++) {
+            node = table[node * numClasses + classes.classOf(input.charAt(i))];
+            if (matching[node]) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean mightMatch(CharSequence input) {
+        return endOfFirstIn(input) >= 0;
+    }
+}
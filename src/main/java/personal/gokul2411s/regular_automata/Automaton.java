@@ -5,7 +5,6 @@ import com.google.common.collect.*;
 import lombok.*;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Represents a non-deterministic finite automaton.
@@ -14,16 +13,26 @@ import java.util.stream.Collectors;
  */
 @Value
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
+@EqualsAndHashCode(exclude = { "epsilonClosures", "liveStates", "simulation" })
+@ToString(exclude = { "epsilonClosures", "liveStates", "simulation" })
 public class Automaton<Symbol> {
 
     @NonNull
     private final int numStates;
 
+    /**
+     * Symbol and epsilon transitions, in compressed rows of ints.
+     */
     @NonNull
-    private final Table<Integer, Symbol, Set<Integer>> transitions;
+    @Getter(AccessLevel.PACKAGE)
+    private final CompactTransitions<Symbol> edges;
 
+    /**
+     * Per state, disjoint symbol ranges each labelled with the states they lead to. Only automata over comparable
+     * symbols have range transitions.
+     */
     @NonNull
-    private final Map<Integer, Set<Integer>> epsilonTransitions;
+    private final Map<Integer, RangeMap<Comparable<?>, Set<Integer>>> rangeTransitions;
 
     @NonNull
     private final int initialState;
@@ -31,6 +40,36 @@ public class Automaton<Symbol> {
     @NonNull
     private final Set<Integer> finalStates;
 
+    /**
+     * Sorted epsilon closure of every state, computed on first use.
+     */
+    @Getter(value = AccessLevel.PACKAGE, lazy = true)
+    private final int[][] epsilonClosures =
+            EpsilonClosures.compute(numStates, edges.epsilonOffsets(), edges.epsilonTargets());
+
+    /**
+     * Whether a final state can be reached from every state, computed on first use.
+     */
+    @Getter(value = AccessLevel.PACKAGE, lazy = true)
+    private final boolean[] liveStates = LiveStates.compute(this);
+
+    @Getter(value = AccessLevel.PRIVATE, lazy = true)
+    private final NfaSimulation<Symbol> simulation = new NfaSimulation<>(this);
+
+    /**
+     * Returns the transitions as an immutable table, which is built on first use.
+     */
+    public Table<Integer, Symbol, Set<Integer>> getTransitions() {
+        return edges.getTable();
+    }
+
+    /**
+     * Returns the epsilon transitions as an immutable map, which is built on first use.
+     */
+    public Map<Integer, Set<Integer>> getEpsilonTransitions() {
+        return edges.getEpsilonMap();
+    }
+
     /**
      * Accepts an array of symbols and returns true indicating acceptance and false rejection.
      */
@@ -42,67 +81,97 @@ public class Automaton<Symbol> {
      * Accepts an iterable of symbols and returns true indicating acceptance and false rejection.
      */
     public boolean accepts(Iterable<Symbol> input) {
+        return getSimulation().accepts(input);
+    }
 
-        Set<Integer> currentStates = new HashSet<>();
-        currentStates.addAll(epsilonClosure(initialState));
-
-        for (Symbol symbol : input) {
-            if (currentStates.isEmpty()) {
-                return false;
-            }
-            Set<Integer> nextStates =
-                    currentStates.stream()
-                            .map(s -> adjacentStates(s, symbol))
-                            .flatMap(Set::stream)
-                            .collect(Collectors.toSet());
-            currentStates = epsilonClosure(nextStates);
-        }
-        return reachedFinalState(currentStates);
+    /**
+     * Returns true if the automaton reaches a final state on the input, starting from the given states.
+     */
+    public boolean acceptsFrom(Set<Integer> states, Iterable<Symbol> input) {
+        return getSimulation().acceptsFrom(states, input);
     }
 
-    private boolean reachedFinalState(Set<Integer> currentStates) {
-        return !Sets.intersection(currentStates, finalStates).isEmpty();
+    /**
+     * Returns true if no final state can be reached from the given state, whatever the input.
+     */
+    public boolean isDeadState(int state) {
+        return !getLiveStates()[state];
     }
 
     /**
      * Returns the epsilon closure of a given state.
      */
     public Set<Integer> epsilonClosure(int state) {
-        Set<Integer> states = new HashSet<>();
-        states.add(state);
-        return epsilonClosure(states);
+        Set<Integer> closure = new HashSet<>();
+        for (int s : getEpsilonClosures()[state]) {
+            closure.add(s);
+        }
+        return closure;
     }
 
     /**
-     * Returns the epsilon closure of a given set of states.
+     * Returns the epsilon closure of a given set of states, as the union of the closures of its states.
      */
     public Set<Integer> epsilonClosure(Set<Integer> states) {
-        Queue<Integer> bfsStates = new LinkedList<>();
+        int[][] closures = getEpsilonClosures();
+        Set<Integer> closure = new HashSet<>();
         for (int state : states) {
-            bfsStates.add(state);
-        }
-        Set<Integer> visited = new HashSet<>();
-        while (!bfsStates.isEmpty()) {
-            int nextState = bfsStates.remove();
-            if (visited.contains(nextState)) {
+            if (closure.contains(state)) {
+                // Everything the state reaches is already in, as the closure is closed.
                 continue;
             }
-            visited.add(nextState);
-            bfsStates.addAll(epsilonTransitions.getOrDefault(nextState, new HashSet<>()));
+            for (int s : closures[state]) {
+                closure.add(s);
+            }
         }
-        return visited;
+        return closure;
     }
 
-    private Set<Integer> adjacentStates(int s, Symbol sym) {
-        Set<Integer> out = transitions.get(s, sym);
-        if (out == null) {
-            out = new HashSet<>();
+    private Set<Integer> rangeTransitionTargets(int s, Symbol sym) {
+        RangeMap<Comparable<?>, Set<Integer>> ranges = rangeTransitions.get(s);
+        if (ranges == null || !(sym instanceof Comparable)) {
+            return null;
         }
-        return out;
+        return ranges.get((Comparable<?>) sym);
     }
 
+    /**
+     * Returns true if the automaton has no epsilon transitions and at most one transition out of every state on every
+     * symbol.
+     */
+    public boolean isDeterministic() {
+        if (edges.numEpsilonTransitions() > 0) {
+            return false;
+        }
+        for (int s = 0; s < numStates; s++) {
+            for (int e = edges.edgeStart(s); e < edges.edgeEnd(s); e++) {
+                if (e > edges.edgeStart(s) && edges.edgeSymbol(e) == edges.edgeSymbol(e - 1)) {
+                    return false;
+                }
+                if (rangeTransitionTargets(s, edges.symbol(edges.edgeSymbol(e))) != null) {
+                    return false;
+                }
+            }
+        }
+        for (RangeMap<Comparable<?>, Set<Integer>> ranges : rangeTransitions.values()) {
+            for (Set<Integer> toStates : ranges.asMapOfRanges().values()) {
+                if (toStates.size() != 1) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the transitions out of the state as an immutable map from symbol to targets.
+     */
     public Map<Symbol, Set<Integer>> stateTransitions(int state) {
-        return transitions.row(state);
+        return edges.row(state);
+    }
+
+    public RangeMap<Comparable<?>, Set<Integer>> stateRangeTransitions(int state) {
+        return rangeTransitions.getOrDefault(state, ImmutableRangeMap.of());
     }
 
     public static <Symbol> AutomatonBuilder<Symbol> builder() {
@@ -113,12 +182,14 @@ public class Automaton<Symbol> {
 
         private int numStates;
         private Table<Integer, Symbol, Set<Integer>> transitions;
+        private Map<Integer, RangeMap<Comparable<?>, Set<Integer>>> rangeTransitions;
         private Map<Integer, Set<Integer>> epsilonTransitions;
         private int initialState;
         private Set<Integer> finalStates;
 
         private AutomatonBuilder() {
             transitions = HashBasedTable.create();
+            rangeTransitions = new HashMap<>();
             epsilonTransitions = new HashMap<>();
             finalStates = new HashSet<>();
         }
@@ -163,6 +234,39 @@ public class Automaton<Symbol> {
             return this;
         }
 
+        /**
+         * Adds a transition on every symbol s with lo <= s <= hi. The symbols must be comparable to each other and
+         * to the input symbols.
+         */
+        public AutomatonBuilder<Symbol> withRangeTransition(int from, Symbol lo, Symbol hi, int to) {
+            Preconditions.checkNotNull(lo);
+            Preconditions.checkNotNull(hi);
+            if (!(lo instanceof Comparable) || !(hi instanceof Comparable)) {
+                throw new InvalidAutomatonException("Range transitions need comparable symbols");
+            }
+            Range<Comparable<?>> range;
+            try {
+                range = Range.closed((Comparable<?>) lo, (Comparable<?>) hi);
+            } catch (IllegalArgumentException e) {
+                throw new InvalidAutomatonException("Empty range from " + lo + " to " + hi);
+            }
+            return withRangeTransition(from, range, to);
+        }
+
+        AutomatonBuilder<Symbol> withRangeTransition(int from, Range<Comparable<?>> range, int to) {
+            range = RangeMaps.canonical(range);
+            if (range.isEmpty()) {
+                return this;
+            }
+            RangeMap<Comparable<?>, Set<Integer>> ranges = rangeTransitions.get(from);
+            if (ranges == null) {
+                ranges = TreeRangeMap.create();
+                rangeTransitions.put(from, ranges);
+            }
+            RangeMaps.addTargets(ranges, range, Collections.singleton(to));
+            return this;
+        }
+
         public AutomatonBuilder<Symbol> withEpsilonTransition(int from, int to) {
             Set<Integer> toStates = epsilonTransitions.get(from);
             if (toStates == null) {
@@ -175,7 +279,22 @@ public class Automaton<Symbol> {
 
         public Automaton<Symbol> build() {
             validate();
-            return new Automaton<>(numStates, transitions, epsilonTransitions, initialState, finalStates);
+            ImmutableMap.Builder<Integer, RangeMap<Comparable<?>, Set<Integer>>> frozenRangeTransitions =
+                    ImmutableMap.builder();
+            for (Map.Entry<Integer, RangeMap<Comparable<?>, Set<Integer>>> entry : rangeTransitions.entrySet()) {
+                ImmutableRangeMap.Builder<Comparable<?>, Set<Integer>> ranges = ImmutableRangeMap.builder();
+                for (Map.Entry<Range<Comparable<?>>, Set<Integer>> range :
+                        entry.getValue().asMapOfRanges().entrySet()) {
+                    ranges.put(range.getKey(), ImmutableSet.copyOf(range.getValue()));
+                }
+                frozenRangeTransitions.put(entry.getKey(), ranges.build());
+            }
+            return new Automaton<>(
+                    numStates,
+                    CompactTransitions.of(numStates, transitions, epsilonTransitions),
+                    frozenRangeTransitions.build(),
+                    initialState,
+                    finalStates);
         }
 
         void validate() throws InvalidAutomatonException {
@@ -192,6 +311,15 @@ public class Automaton<Symbol> {
                 }
             }
 
+            for (Map.Entry<Integer, RangeMap<Comparable<?>, Set<Integer>>> entry : rangeTransitions.entrySet()) {
+                validateStateInUniverse(entry.getKey());
+                for (Set<Integer> toStates : entry.getValue().asMapOfRanges().values()) {
+                    for (int s : toStates) {
+                        validateStateInUniverse(s);
+                    }
+                }
+            }
+
             for (Map.Entry<Integer, Set<Integer>> entry : epsilonTransitions.entrySet()) {
                 validateStateInUniverse(entry.getKey());
                 for (int s : entry.getValue()) {
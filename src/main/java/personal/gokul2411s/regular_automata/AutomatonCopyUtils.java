@@ -1,6 +1,7 @@
 package personal.gokul2411s.regular_automata;
 
-import com.google.common.collect.Table;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeMap;
 
 import java.util.Map;
 import java.util.Set;
@@ -26,11 +27,21 @@ public final class AutomatonCopyUtils {
 
     public static <Symbol> void copyTransitions(
             Automaton<Symbol> input, Automaton.AutomatonBuilder<Symbol> outputBuilder, int stateOffset) {
-        for (Table.Cell<Integer, Symbol, Set<Integer>> cell : input.getTransitions().cellSet()) {
-            int fromState = cell.getRowKey();
-            Symbol s = cell.getColumnKey();
-            for (int toState : cell.getValue()) {
-                outputBuilder.withTransition(fromState + stateOffset, s, toState + stateOffset);
+        CompactTransitions<Symbol> edges = input.getEdges();
+        for (int fromState = 0; fromState < input.getNumStates(); fromState++) {
+            for (int e = edges.edgeStart(fromState); e < edges.edgeEnd(fromState); e++) {
+                outputBuilder.withTransition(
+                        fromState + stateOffset,
+                        edges.symbol(edges.edgeSymbol(e)),
+                        edges.edgeTarget(e) + stateOffset);
+            }
+        }
+        for (Map.Entry<Integer, RangeMap<Comparable<?>, Set<Integer>>> entry : input.getRangeTransitions().entrySet()) {
+            int fromState = entry.getKey();
+            for (Map.Entry<Range<Comparable<?>>, Set<Integer>> range : entry.getValue().asMapOfRanges().entrySet()) {
+                for (int toState : range.getValue()) {
+                    outputBuilder.withRangeTransition(fromState + stateOffset, range.getKey(), toState + stateOffset);
+                }
             }
         }
     }
@@ -42,10 +53,10 @@ public final class AutomatonCopyUtils {
 
     public static <Symbol> void copyEpsilonTransitions(
             Automaton<Symbol> input, Automaton.AutomatonBuilder<Symbol> outputBuilder, int stateOffset) {
-        for (Map.Entry<Integer, Set<Integer>> entry : input.getEpsilonTransitions().entrySet()) {
-            int fromState = entry.getKey();
-            for (int toState : entry.getValue()) {
-                outputBuilder.withEpsilonTransition(fromState + stateOffset, toState + stateOffset);
+        CompactTransitions<Symbol> edges = input.getEdges();
+        for (int fromState = 0; fromState < input.getNumStates(); fromState++) {
+            for (int e = edges.epsilonStart(fromState); e < edges.epsilonEnd(fromState); e++) {
+                outputBuilder.withEpsilonTransition(fromState + stateOffset, edges.epsilonTarget(e) + stateOffset);
             }
         }
     }
@@ -1,18 +1,21 @@
 package personal.gokul2411s.regular_automata;
 
+import java.util.Collection;
+import java.util.List;
+
 public final class AutomatonFactory {
 
     public static Automaton<Character> automatonAcceptingAllChars() {
-        Automaton.AutomatonBuilder<Character> outputBuilder =
-                Automaton.<Character>builder()
-                        .withNumStates(2)
-                        .withInitialState(0)
-                        .withFinalState(1);
+        return automatonAcceptingRange(Character.MIN_VALUE, Character.MAX_VALUE);
+    }
 
-        for (int i = 0; i < 65536; i++) {
-            outputBuilder.withTransition(0, (char) i, 1);
-        }
-        return outputBuilder.build();
+    public static <Symbol> Automaton<Symbol> automatonAcceptingRange(Symbol lo, Symbol hi) {
+        return Automaton.<Symbol>builder()
+                .withNumStates(2)
+                .withInitialState(0)
+                .withFinalState(1)
+                .withRangeTransition(0, lo, hi, 1)
+                .build();
     }
 
     public static <Symbol> Automaton<Symbol> automatonAcceptingEmptyInput() {
@@ -33,6 +36,19 @@ public final class AutomatonFactory {
                 .build();
     }
 
+    public static <Symbol> Automaton<Symbol> automatonAcceptingAnySymbol(Collection<Symbol> symbols) {
+        Automaton.AutomatonBuilder<Symbol> outputBuilder =
+                Automaton.<Symbol>builder()
+                        .withNumStates(2)
+                        .withInitialState(0)
+                        .withFinalState(1);
+
+        for (Symbol symbol : symbols) {
+            outputBuilder.withTransition(0, symbol, 1);
+        }
+        return outputBuilder.build();
+    }
+
     public static <Symbol> Automaton<Symbol> kleeneStarred(Automaton<Symbol> automaton) {
         return new KleeneStar<Symbol>().apply(automaton);
     }
@@ -41,13 +57,49 @@ public final class AutomatonFactory {
         return new Union<Symbol>().apply(first, second);
     }
 
+    public static <Symbol> Automaton<Symbol> unioned(List<Automaton<Symbol>> automata) {
+        return new Union<Symbol>().apply(automata);
+    }
+
     public static <Symbol> Automaton<Symbol> concatenated(Automaton<Symbol> first, Automaton<Symbol> second) {
         return new Concatenation<Symbol>().apply(first, second);
     }
 
+    public static <Symbol> Automaton<Symbol> concatenated(List<Automaton<Symbol>> automata) {
+        return new Concatenation<Symbol>().apply(automata);
+    }
+
+    public static <Symbol> Automaton<Symbol> reversed(Automaton<Symbol> automaton) {
+        return new Reversal<Symbol>().apply(automaton);
+    }
+
     public static <Symbol> Automaton<Symbol> determinized(Automaton<Symbol> automaton) {
         return new Determinization<Symbol>().apply(automaton);
     }
 
+    /**
+     * Determinizes like {@link #determinized(Automaton)}, expanding each level of composite states in parallel on the
+     * common fork/join pool.
+     */
+    public static <Symbol> Automaton<Symbol> determinizedInParallel(Automaton<Symbol> automaton) {
+        return new ParallelDeterminization<Symbol>().apply(automaton);
+    }
+
+    public static <Symbol> Automaton<Symbol> epsilonFree(Automaton<Symbol> automaton) {
+        return new EpsilonRemoval<Symbol>().apply(automaton);
+    }
+
+    public static <Symbol> Automaton<Symbol> minimized(Automaton<Symbol> dfa) {
+        return new Minimization<Symbol>().apply(dfa);
+    }
+
+    public static DenseDfa compiled(Automaton<Character> dfa) {
+        return new DfaCompilation().apply(dfa);
+    }
+
+    public static DenseDfa compiled(Automaton<Integer> classDfa, CharClasses classes) {
+        return DfaCompilation.compile(classDfa, classes);
+    }
+
     private AutomatonFactory() { }
 }
@@ -0,0 +1,95 @@
+package personal.gokul2411s.regular_automata;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Matches many inputs on a fork/join pool. The inputs are split into runs of whole 64-bit words of the result, so
+ * every task sets the bits of its own words without synchronization, and each task fetches the per-thread matcher
+ * once for its whole run.
+ */
+final class BatchMatching {
+
+    /**
+     * Fewest inputs a task is given, a multiple of 64.
+     */
+    static final int MIN_INPUTS_PER_TASK = 256;
+
+    /**
+     * Number of tasks per worker thread of the pool, so that threads that finish early can steal work.
+     */
+    private static final int TASKS_PER_THREAD = 4;
+
+    /**
+     * Returns the indices of the inputs that match. The supplier is called on the thread that runs each task, and
+     * the matcher it returns is only used on that thread.
+     */
+    static BitSet matchAll(
+            List<? extends CharSequence> inputs, Supplier<Predicate<CharSequence>> matchers, ForkJoinPool pool) {
+        List<? extends CharSequence> indexed = inputs instanceof RandomAccess ? inputs : new ArrayList<>(inputs);
+        int numInputs = indexed.size();
+        long[] words = new long[(numInputs + 63) >>> 6];
+        int perTask = pool.getParallelism() * TASKS_PER_THREAD;
+        int inputsPerTask = Math.max(MIN_INPUTS_PER_TASK, ((numInputs / perTask) + 63) & ~63);
+        BatchTask task = new BatchTask(indexed, matchers, words, 0, numInputs, inputsPerTask);
+        if (numInputs <= inputsPerTask) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        return BitSet.valueOf(words);
+    }
+
+    private static class BatchTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<? extends CharSequence> inputs;
+        private final Supplier<Predicate<CharSequence>> matchers;
+        private final long[] words;
+        private final int from;
+        private final int to;
+        private final int inputsPerTask;
+
+        private BatchTask(
+                List<? extends CharSequence> inputs,
+                Supplier<Predicate<CharSequence>> matchers,
+                long[] words,
+                int from,
+                int to,
+                int inputsPerTask) {
+            this.inputs = inputs;
+            this.matchers = matchers;
+            this.words = words;
+            this.from = from;
+            this.to = to;
+            this.inputsPerTask = inputsPerTask;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= inputsPerTask) {
+                Predicate<CharSequence> matcher = matchers.get();
+                for (int i = from; i < to; i++) {
+                    if (matcher.test(inputs.get(i))) {
+                        words[i >>> 6] |= 1L << i;
+                    }
+                }
+                return;
+            }
+            // Split on a word boundary, so that no word is shared between tasks.
+            int mid = ((from + to) >>> 1) & ~63;
+            invokeAll(
+                    new BatchTask(inputs, matchers, words, from, mid, inputsPerTask),
+                    new BatchTask(inputs, matchers, words, mid, to, inputsPerTask));
+        }
+    }
+
+    private BatchMatching() { }
+}
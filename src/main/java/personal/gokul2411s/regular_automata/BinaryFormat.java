@@ -0,0 +1,517 @@
+package personal.gokul2411s.regular_automata;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.BoundType;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeMap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact binary format for automata over char classes and for compiled regexes, so that rule sets can be compiled
+ * once and loaded at startup without determinizing again.
+ *
+ * Everything is written big-endian as a header (magic, format version, kind) followed by flat int arrays: transitions
+ * as (from, symbol, to) triples, range transitions as (from, lo, hi, to) quadruples with lo and hi inclusive, epsilon
+ * transitions as pairs, and final and accepting states as bitsets. Dense transition tables and char class tables are
+ * read with bulk copies, so loading them allocates one array per table rather than objects per state. Prefilters are
+ * rebuilt from the pattern, which only needs it parsed.
+ */
+public final class BinaryFormat {
+
+    private static final int MAGIC = 0x52454741;
+
+    /**
+     * Bumped on every incompatible change. Data of any other version is rejected.
+     */
+    static final int VERSION = 2;
+
+    private static final int CHAR_BLOCKS = (Character.MAX_VALUE + 1) / CharClasses.BLOCK_SIZE;
+
+    private static final byte AUTOMATON = 1;
+    private static final byte REGEX = 2;
+
+    private static final byte PREFILTERED = 1;
+    private static final byte LAZY = 2;
+
+    public static byte[] toBytes(Automaton<Integer> automaton) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            write(automaton, bytes);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static byte[] toBytes(Regex regex) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            write(regex, bytes);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static void write(Automaton<Integer> automaton, OutputStream out) throws IOException {
+        Preconditions.checkNotNull(automaton);
+        DataOutputStream data = new DataOutputStream(out);
+        writeHeader(data, AUTOMATON);
+        writeAutomaton(data, automaton);
+        data.flush();
+    }
+
+    public static void write(Regex regex, OutputStream out) throws IOException {
+        Preconditions.checkNotNull(regex);
+        DataOutputStream data = new DataOutputStream(out);
+        writeHeader(data, REGEX);
+        byte[] pattern = regex.getPattern().getBytes(StandardCharsets.UTF_8);
+        data.writeInt(pattern.length);
+        data.write(pattern);
+        LazyDfa lazyDfa = regex.getLazyDfa();
+        data.writeByte((regex.getPrefilter() != null ? PREFILTERED : 0) | (lazyDfa != null ? LAZY : 0));
+        writeAutomaton(data, regex.getCompiledAutomaton());
+        if (lazyDfa != null) {
+            data.writeInt(lazyDfa.getMaxCachedStates());
+            writeCharClasses(data, lazyDfa.getCharClasses());
+        } else {
+            DenseDfa dfa = regex.getDfa();
+            writeCharClasses(data, dfa.getCharClasses());
+            data.writeInt(dfa.getNumStates());
+            data.writeInt(dfa.getInitialState());
+            writeInts(data, dfa.getTransitions());
+            writeBits(data, dfa.getAccepting());
+            writeBits(data, dfa.getAcceptingSinks());
+        }
+        data.flush();
+    }
+
+    public static void save(Automaton<Integer> automaton, Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(automaton, out);
+        }
+    }
+
+    public static void save(Regex regex, Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(regex, out);
+        }
+    }
+
+    /**
+     * Loads an automaton from a file, which is memory-mapped rather than read.
+     */
+    public static Automaton<Integer> loadAutomaton(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readAutomaton(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Loads a regex from a file, which is memory-mapped rather than read.
+     */
+    public static Regex loadRegex(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readRegex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads an automaton from the remaining bytes of the buffer, which may be memory-mapped, and consumes them.
+     *
+     * @throws InvalidAutomatonException if the bytes are not an automaton of this version of the format.
+     */
+    public static Automaton<Integer> readAutomaton(ByteBuffer in) {
+        ByteOrder order = in.order();
+        try {
+            in.order(ByteOrder.BIG_ENDIAN);
+            readHeader(in, AUTOMATON);
+            return readAutomatonBody(in);
+        } catch (BufferUnderflowException e) {
+            throw new InvalidAutomatonException("Truncated automaton");
+        } finally {
+            in.order(order);
+        }
+    }
+
+    /**
+     * Reads a regex from the remaining bytes of the buffer, which may be memory-mapped, and consumes them.
+     *
+     * @throws InvalidAutomatonException if the bytes are not a regex of this version of the format.
+     */
+    public static Regex readRegex(ByteBuffer in) {
+        ByteOrder order = in.order();
+        try {
+            in.order(ByteOrder.BIG_ENDIAN);
+            readHeader(in, REGEX);
+            int patternLength = readLength(in);
+            if (patternLength > in.remaining()) {
+                throw new InvalidAutomatonException("Truncated pattern of " + patternLength + " bytes");
+            }
+            byte[] patternBytes = new byte[patternLength];
+            in.get(patternBytes);
+            String pattern = new String(patternBytes, StandardCharsets.UTF_8);
+            byte flags = in.get();
+            Automaton<Integer> automaton = readAutomatonBody(in);
+            Prefilter prefilter = (flags & PREFILTERED) != 0 ? prefilter(pattern) : null;
+            if ((flags & LAZY) != 0) {
+                int maxCachedStates = in.getInt();
+                if (maxCachedStates < 2) {
+                    throw new InvalidAutomatonException("Lazy dfa cannot cache " + maxCachedStates + " states");
+                }
+                CharClasses charClasses = readCharClasses(in);
+                validateSymbols(automaton, charClasses);
+                if ((long) maxCachedStates * charClasses.getNumClasses() > Integer.MAX_VALUE) {
+                    throw new InvalidAutomatonException("Lazy dfa cannot cache " + maxCachedStates + " states");
+                }
+                return new Regex(
+                        pattern,
+                        automaton,
+                        null,
+                        new LazyDfa(automaton, charClasses, maxCachedStates),
+                        prefilter,
+                        charClasses);
+            }
+            CharClasses charClasses = readCharClasses(in);
+            validateSymbols(automaton, charClasses);
+            int numStates = readLength(in);
+            int initialState = in.getInt();
+            // The table bounds the number of states by the size of the input, so it is checked before the bits.
+            int[] transitions = readInts(in);
+            if (transitions.length != (long) numStates * charClasses.getNumClasses()) {
+                throw new InvalidAutomatonException("Dense table does not match its states and char classes");
+            }
+            boolean[] accepting = readBits(in, numStates);
+            boolean[] acceptingSinks = readBits(in, numStates);
+            for (int state : transitions) {
+                validateDenseState(state, numStates);
+            }
+            validateDenseState(initialState, numStates);
+            DenseDfa dfa =
+                    new DenseDfa(numStates, initialState, charClasses, transitions, accepting, acceptingSinks);
+            return new Regex(pattern, automaton, dfa, null, prefilter, charClasses);
+        } catch (BufferUnderflowException e) {
+            throw new InvalidAutomatonException("Truncated regex");
+        } finally {
+            in.order(order);
+        }
+    }
+
+    /**
+     * Returns the prefilter of the stored pattern, which is parsed again as prefilters are not stored.
+     */
+    private static Prefilter prefilter(String pattern) {
+        RegexNode syntaxTree;
+        try {
+            syntaxTree = new RegexParser().apply(pattern);
+        } catch (InvalidRegexException e) {
+            throw new InvalidAutomatonException("Invalid pattern: " + e.getMessage());
+        }
+        return Regex.RegexBuilder.prefilter(Collections.singletonList(syntaxTree));
+    }
+
+    /**
+     * Checks that the symbols of the automaton of a regex are class ids of its char classes, which every automaton
+     * compiled from it relies on.
+     */
+    private static void validateSymbols(Automaton<Integer> automaton, CharClasses charClasses) {
+        for (int classId : automaton.getEdges().getSymbols()) {
+            validateClass(classId, charClasses.getNumClasses());
+        }
+    }
+
+    private static void validateDenseState(int state, int numStates) {
+        if (state < DenseDfa.DEAD_STATE || state >= numStates) {
+            throw new InvalidAutomatonException("State " + state + " not in universe");
+        }
+    }
+
+    private static void writeHeader(DataOutputStream data, byte kind) throws IOException {
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeByte(kind);
+    }
+
+    private static void readHeader(ByteBuffer in, byte kind) {
+        if (in.getInt() != MAGIC) {
+            throw new InvalidAutomatonException("Not an automaton file");
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new InvalidAutomatonException("Unsupported format version " + version);
+        }
+        if (in.get() != kind) {
+            throw new InvalidAutomatonException(kind == REGEX ? "Not a regex" : "Not an automaton");
+        }
+    }
+
+    private static void writeAutomaton(DataOutputStream data, Automaton<Integer> automaton) throws IOException {
+        int numStates = automaton.getNumStates();
+        data.writeInt(numStates);
+        data.writeInt(automaton.getInitialState());
+        BitSet finalStates = new BitSet(numStates);
+        automaton.getFinalStates().forEach(finalStates::set);
+        writeBits(data, finalStates, numStates);
+
+        CompactTransitions<Integer> edges = automaton.getEdges();
+        data.writeInt(edges.numEdges());
+        for (int s = 0; s < numStates; s++) {
+            for (int e = edges.edgeStart(s); e < edges.edgeEnd(s); e++) {
+                data.writeInt(s);
+                data.writeInt(edges.symbol(edges.edgeSymbol(e)));
+                data.writeInt(edges.edgeTarget(e));
+            }
+        }
+
+        int numRangeTransitions = 0;
+        for (RangeMap<Comparable<?>, Set<Integer>> ranges : automaton.getRangeTransitions().values()) {
+            for (Set<Integer> toStates : ranges.asMapOfRanges().values()) {
+                numRangeTransitions += toStates.size();
+            }
+        }
+        data.writeInt(numRangeTransitions);
+        for (Map.Entry<Integer, RangeMap<Comparable<?>, Set<Integer>>> entry
+                : automaton.getRangeTransitions().entrySet()) {
+            for (Map.Entry<Range<Comparable<?>>, Set<Integer>> range : entry.getValue().asMapOfRanges().entrySet()) {
+                int lo = lowestSymbol(range.getKey());
+                int hi = highestSymbol(range.getKey());
+                for (int to : range.getValue()) {
+                    data.writeInt(entry.getKey());
+                    data.writeInt(lo);
+                    data.writeInt(hi);
+                    data.writeInt(to);
+                }
+            }
+        }
+
+        data.writeInt(edges.numEpsilonTransitions());
+        for (int s = 0; s < numStates; s++) {
+            for (int e = edges.epsilonStart(s); e < edges.epsilonEnd(s); e++) {
+                data.writeInt(s);
+                data.writeInt(edges.epsilonTarget(e));
+            }
+        }
+    }
+
+    private static Automaton<Integer> readAutomatonBody(ByteBuffer in) {
+        int numStates = readLength(in);
+        Automaton.AutomatonBuilder<Integer> builder =
+                Automaton.<Integer>builder().withNumStates(numStates).withInitialState(in.getInt());
+        boolean[] finalStates = readBits(in, numStates);
+        for (int s = 0; s < numStates; s++) {
+            if (finalStates[s]) {
+                builder.withFinalState(s);
+            }
+        }
+        int[] transitions = readRecords(in, 3);
+        for (int i = 0; i < transitions.length; i += 3) {
+            builder.withTransition(transitions[i], transitions[i + 1], transitions[i + 2]);
+        }
+        int[] rangeTransitions = readRecords(in, 4);
+        for (int i = 0; i < rangeTransitions.length; i += 4) {
+            builder.withRangeTransition(
+                    rangeTransitions[i], rangeTransitions[i + 1], rangeTransitions[i + 2], rangeTransitions[i + 3]);
+        }
+        int[] epsilonTransitions = readRecords(in, 2);
+        for (int i = 0; i < epsilonTransitions.length; i += 2) {
+            builder.withEpsilonTransition(epsilonTransitions[i], epsilonTransitions[i + 1]);
+        }
+        return builder.build();
+    }
+
+    private static int lowestSymbol(Range<Comparable<?>> range) {
+        if (!range.hasLowerBound()) {
+            return Integer.MIN_VALUE;
+        }
+        int lo = (Integer) range.lowerEndpoint();
+        return range.lowerBoundType() == BoundType.CLOSED ? lo : lo + 1;
+    }
+
+    private static int highestSymbol(Range<Comparable<?>> range) {
+        if (!range.hasUpperBound()) {
+            return Integer.MAX_VALUE;
+        }
+        int hi = (Integer) range.upperEndpoint();
+        return range.upperBoundType() == BoundType.CLOSED ? hi : hi - 1;
+    }
+
+    private static void writeCharClasses(DataOutputStream data, CharClasses charClasses) throws IOException {
+        data.writeInt(charClasses.getNumClasses());
+        writeChars(data, charClasses.getIntervalStarts());
+        writeInts(data, charClasses.getIntervalClasses());
+        writeInts(data, charClasses.getBlockOffsets());
+        writeChars(data, charClasses.getClassTable());
+    }
+
+    /**
+     * Reads char classes, checking every lookup they can make stays inside their tables and yields a class id below
+     * their number of classes.
+     */
+    private static CharClasses readCharClasses(ByteBuffer in) {
+        int numClasses = in.getInt();
+        if (numClasses < 1 || numClasses > Character.MAX_VALUE + 1) {
+            throw new InvalidAutomatonException("Invalid number of char classes " + numClasses);
+        }
+        char[] intervalStarts = readChars(in);
+        int[] intervalClasses = readInts(in);
+        int[] blockOffsets = readInts(in);
+        char[] classTable = readChars(in);
+        if (intervalStarts.length == 0 || intervalStarts.length != intervalClasses.length) {
+            throw new InvalidAutomatonException("Char class intervals do not match their classes");
+        }
+        if (intervalStarts[0] != Character.MIN_VALUE) {
+            throw new InvalidAutomatonException("Char class intervals do not start at 0");
+        }
+        for (int i = 1; i < intervalStarts.length; i++) {
+            if (intervalStarts[i] <= intervalStarts[i - 1]) {
+                throw new InvalidAutomatonException("Char class intervals are not sorted");
+            }
+        }
+        for (int classId : intervalClasses) {
+            validateClass(classId, numClasses);
+        }
+        if (blockOffsets.length != CHAR_BLOCKS) {
+            throw new InvalidAutomatonException("Expected " + CHAR_BLOCKS + " char blocks, got " + blockOffsets.length);
+        }
+        for (int offset : blockOffsets) {
+            if (offset < 0 || (long) offset + CharClasses.BLOCK_SIZE > classTable.length) {
+                throw new InvalidAutomatonException("Char block offset " + offset + " outside the class table");
+            }
+        }
+        for (char classId : classTable) {
+            validateClass(classId, numClasses);
+        }
+        return new CharClasses(numClasses, intervalStarts, intervalClasses, blockOffsets, classTable);
+    }
+
+    private static void validateClass(int classId, int numClasses) {
+        if (classId < 0 || classId >= numClasses) {
+            throw new InvalidAutomatonException("Char class " + classId + " not below " + numClasses);
+        }
+    }
+
+    private static void writeInts(DataOutputStream data, int[] values) throws IOException {
+        data.writeInt(values.length);
+        for (int value : values) {
+            data.writeInt(value);
+        }
+    }
+
+    private static int[] readInts(ByteBuffer in) {
+        return readInts(in, readLength(in));
+    }
+
+    /**
+     * Reads a count of records followed by their ints, width per record, in one array.
+     */
+    private static int[] readRecords(ByteBuffer in, int width) {
+        long length = (long) readLength(in) * width;
+        if (length > in.remaining() / Integer.BYTES) {
+            throw new InvalidAutomatonException("Truncated array of " + length + " ints");
+        }
+        return readInts(in, (int) length);
+    }
+
+    private static int[] readInts(ByteBuffer in, int length) {
+        if (length > in.remaining() / Integer.BYTES) {
+            throw new InvalidAutomatonException("Truncated array of " + length + " ints");
+        }
+        int[] values = new int[length];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + length * Integer.BYTES);
+        return values;
+    }
+
+    private static void writeChars(DataOutputStream data, char[] values) throws IOException {
+        data.writeInt(values.length);
+        for (char value : values) {
+            data.writeChar(value);
+        }
+    }
+
+    private static char[] readChars(ByteBuffer in) {
+        int length = readLength(in);
+        if (length > in.remaining() / Character.BYTES) {
+            throw new InvalidAutomatonException("Truncated array of " + length + " chars");
+        }
+        char[] values = new char[length];
+        in.asCharBuffer().get(values);
+        in.position(in.position() + length * Character.BYTES);
+        return values;
+    }
+
+    private static void writeBits(DataOutputStream data, boolean[] bits) throws IOException {
+        BitSet set = new BitSet(bits.length);
+        for (int i = 0; i < bits.length; i++) {
+            if (bits[i]) {
+                set.set(i);
+            }
+        }
+        writeBits(data, set, bits.length);
+    }
+
+    /**
+     * Writes a word for every 64 of the size bits, trailing zero words included, so that a reader can check the
+     * size against the input before allocating for it.
+     */
+    private static void writeBits(DataOutputStream data, BitSet bits, int size) throws IOException {
+        long[] words = Arrays.copyOf(bits.toLongArray(), numWords(size));
+        data.writeInt(words.length);
+        for (long word : words) {
+            data.writeLong(word);
+        }
+    }
+
+    private static boolean[] readBits(ByteBuffer in, int size) {
+        int numWords = readLength(in);
+        if (numWords != numWords(size)) {
+            throw new InvalidAutomatonException("Bitset of " + numWords + " words for " + size + " states");
+        }
+        if (numWords > in.remaining() / Long.BYTES) {
+            throw new InvalidAutomatonException("Truncated bitset of " + numWords + " words");
+        }
+        long[] words = new long[numWords];
+        in.asLongBuffer().get(words);
+        in.position(in.position() + numWords * Long.BYTES);
+        BitSet set = BitSet.valueOf(words);
+        if (set.length() > size) {
+            throw new InvalidAutomatonException("Bit " + (set.length() - 1) + " set past " + size + " states");
+        }
+        boolean[] bits = new boolean[size];
+        for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+            bits[i] = true;
+        }
+        return bits;
+    }
+
+    private static int numWords(int numBits) {
+        return (int) ((numBits + 63L) / 64);
+    }
+
+    private static int readLength(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            throw new InvalidAutomatonException("Negative length " + length);
+        }
+        return length;
+    }
+
+    private BinaryFormat() { }
+}
@@ -0,0 +1,232 @@
+package personal.gokul2411s.regular_automata;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.BoundType;
+import com.google.common.collect.Range;
+import lombok.*;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Partitions the char alphabet into equivalence classes. Two chars share a class iff no distinguishing set handed to
+ * the builder contains one of them but not the other.
+ *
+ * Lookups go through a two-level table (256 blocks of 256 chars, identical blocks shared), so {@link #classOf(char)}
+ * costs two array loads and the table stays small when most of the alphabet falls into a few classes.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class CharClasses {
+
+    static final int BLOCK_SIZE = 256;
+
+    private final int numClasses;
+
+    /**
+     * Sorted starts of maximal runs of chars that share a class. The first start is always 0.
+     */
+    @NonNull
+    private final char[] intervalStarts;
+
+    /**
+     * Class of the run starting at the corresponding entry of intervalStarts.
+     */
+    @NonNull
+    private final int[] intervalClasses;
+
+    @NonNull
+    private final int[] blockOffsets;
+
+    @NonNull
+    private final char[] classTable;
+
+    public int classOf(char c) {
+        return classTable[blockOffsets[c >>> 8] + (c & 0xFF)];
+    }
+
+    /**
+     * Calls the action once for every class that has a char in [lo, hi].
+     */
+    public void forEachClassIn(char lo, char hi, IntConsumer action) {
+        int interval = Arrays.binarySearch(intervalStarts, lo);
+        if (interval < 0) {
+            interval = -interval - 2;
+        }
+        BitSet seen = new BitSet(numClasses);
+        while (interval < intervalStarts.length && intervalStarts[interval] <= hi) {
+            int classId = intervalClasses[interval];
+            if (!seen.get(classId)) {
+                seen.set(classId);
+                action.accept(classId);
+            }
+            interval++;
+        }
+    }
+
+    /**
+     * Returns the chars of the range as {lo, hi}, or null if it has none.
+     */
+    static char[] bounds(Range<Character> range) {
+        int lo = Character.MIN_VALUE;
+        if (range.hasLowerBound()) {
+            lo = range.lowerEndpoint() + (range.lowerBoundType() == BoundType.OPEN ? 1 : 0);
+        }
+        int hi = Character.MAX_VALUE;
+        if (range.hasUpperBound()) {
+            hi = range.upperEndpoint() - (range.upperBoundType() == BoundType.OPEN ? 1 : 0);
+        }
+        return lo <= hi ? new char[] { (char) lo, (char) hi } : null;
+    }
+
+    public static CharClassesBuilder builder() {
+        return new CharClassesBuilder();
+    }
+
+    public static class CharClassesBuilder {
+
+        private final List<List<char[]>> distinguishingSets;
+
+        private CharClassesBuilder() {
+            distinguishingSets = new ArrayList<>();
+        }
+
+        /**
+         * Adds a distinguishing set made of the given chars.
+         */
+        public CharClassesBuilder withDistinguishedChars(Collection<Character> chars) {
+            Preconditions.checkNotNull(chars);
+            char[] sorted = new char[chars.size()];
+            int i = 0;
+            for (char c : chars) {
+                sorted[i++] = c;
+            }
+            Arrays.sort(sorted);
+
+            List<char[]> runs = new ArrayList<>();
+            int index = 0;
+            while (index < sorted.length) {
+                char lo = sorted[index];
+                char hi = lo;
+                index++;
+                while (index < sorted.length && sorted[index] <= hi + 1) {
+                    hi = sorted[index];
+                    index++;
+                }
+                runs.add(new char[] { lo, hi });
+            }
+            distinguishingSets.add(runs);
+            return this;
+        }
+
+        /**
+         * Adds a distinguishing set made of the chars in any of the ranges.
+         */
+        public CharClassesBuilder withDistinguishedRanges(Collection<Range<Character>> ranges) {
+            Preconditions.checkNotNull(ranges);
+            List<char[]> runs = new ArrayList<>();
+            for (Range<Character> range : ranges) {
+                char[] run = bounds(range);
+                if (run != null) {
+                    runs.add(run);
+                }
+            }
+            distinguishingSets.add(runs);
+            return this;
+        }
+
+        /**
+         * Adds a distinguishing set made of the chars in [lo, hi].
+         */
+        public CharClassesBuilder withDistinguishedRange(char lo, char hi) {
+            Preconditions.checkArgument(lo <= hi, "Empty range");
+            List<char[]> runs = new ArrayList<>();
+            runs.add(new char[] { lo, hi });
+            distinguishingSets.add(runs);
+            return this;
+        }
+
+        public CharClasses build() {
+            // Elementary intervals: every set is a union of them.
+            TreeSet<Integer> boundarySet = new TreeSet<>();
+            boundarySet.add(0);
+            for (List<char[]> runs : distinguishingSets) {
+                for (char[] run : runs) {
+                    boundarySet.add((int) run[0]);
+                    if (run[1] < Character.MAX_VALUE) {
+                        boundarySet.add(run[1] + 1);
+                    }
+                }
+            }
+            int[] boundaries = boundarySet.stream().mapToInt(Integer::intValue).toArray();
+
+            List<List<Integer>> signatures = new ArrayList<>(boundaries.length);
+            for (int i = 0; i < boundaries.length; i++) {
+                signatures.add(new ArrayList<>());
+            }
+            for (int setId = 0; setId < distinguishingSets.size(); setId++) {
+                for (char[] run : distinguishingSets.get(setId)) {
+                    int interval = Arrays.binarySearch(boundaries, run[0]);
+                    while (interval < boundaries.length && boundaries[interval] <= run[1]) {
+                        List<Integer> signature = signatures.get(interval);
+                        if (signature.isEmpty() || signature.get(signature.size() - 1) != setId) {
+                            signature.add(setId);
+                        }
+                        interval++;
+                    }
+                }
+            }
+
+            // Intervals with equal signatures share a class; adjacent intervals of a class are merged.
+            Map<List<Integer>, Integer> classIds = new HashMap<>();
+            List<Character> starts = new ArrayList<>();
+            List<Integer> classes = new ArrayList<>();
+            for (int i = 0; i < boundaries.length; i++) {
+                Integer classId = classIds.get(signatures.get(i));
+                if (classId == null) {
+                    classId = classIds.size();
+                    classIds.put(signatures.get(i), classId);
+                }
+                if (classes.isEmpty() || classes.get(classes.size() - 1).intValue() != classId) {
+                    starts.add((char) boundaries[i]);
+                    classes.add(classId);
+                }
+            }
+
+            char[] intervalStarts = new char[starts.size()];
+            int[] intervalClasses = new int[classes.size()];
+            for (int i = 0; i < intervalStarts.length; i++) {
+                intervalStarts[i] = starts.get(i);
+                intervalClasses[i] = classes.get(i);
+            }
+            return fromIntervals(classIds.size(), intervalStarts, intervalClasses);
+        }
+    }
+
+    static CharClasses fromIntervals(int numClasses, char[] intervalStarts, int[] intervalClasses) {
+        int[] blockOffsets = new int[BLOCK_SIZE];
+        Map<String, Integer> blocks = new HashMap<>();
+        StringBuilder classTable = new StringBuilder();
+        char[] block = new char[BLOCK_SIZE];
+        int interval = 0;
+        for (int b = 0; b < BLOCK_SIZE; b++) {
+            for (int i = 0; i < BLOCK_SIZE; i++) {
+                int c = b * BLOCK_SIZE + i;
+                while (interval + 1 < intervalStarts.length && intervalStarts[interval + 1] <= c) {
+                    interval++;
+                }
+                block[i] = (char) intervalClasses[interval];
+            }
+            String key = new String(block);
+            Integer offset = blocks.get(key);
+            if (offset == null) {
+                offset = classTable.length();
+                blocks.put(key, offset);
+                classTable.append(block);
+            }
+            blockOffsets[b] = offset;
+        }
+        return new CharClasses(
+                numClasses, intervalStarts, intervalClasses, blockOffsets, classTable.toString().toCharArray());
+    }
+}
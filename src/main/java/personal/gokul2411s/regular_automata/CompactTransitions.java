@@ -0,0 +1,330 @@
+package personal.gokul2411s.regular_automata;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * Frozen symbol and epsilon transitions of an automaton, in compressed sparse rows of primitive ints.
+ *
+ * Symbols are interned, and every transition is a single edge: the edges of state s are at [offsets[s],
+ * offsets[s + 1]) in edgeSymbols and edgeTargets, sorted by symbol id and then by target. Epsilon transitions are
+ * sorted target rows of their own. The map and table views that the builder takes are only built when asked for.
+ */
+final class CompactTransitions<Symbol> {
+
+    @Getter
+    private final int numStates;
+
+    /**
+     * Interned symbols, indexed by symbol id.
+     */
+    @Getter
+    private final ImmutableList<Symbol> symbols;
+
+    private final Map<Symbol, Integer> symbolIds;
+
+    private final int[] offsets;
+    private final int[] edgeSymbols;
+    private final int[] edgeTargets;
+
+    private final int[] epsilonOffsets;
+    private final int[] epsilonTargets;
+
+    @Getter(value = AccessLevel.PACKAGE, lazy = true)
+    private final Table<Integer, Symbol, Set<Integer>> table = buildTable();
+
+    @Getter(value = AccessLevel.PACKAGE, lazy = true)
+    private final Map<Integer, Set<Integer>> epsilonMap = buildEpsilonMap();
+
+    private CompactTransitions(
+            int numStates,
+            ImmutableList<Symbol> symbols,
+            Map<Symbol, Integer> symbolIds,
+            int[] offsets,
+            int[] edgeSymbols,
+            int[] edgeTargets,
+            int[] epsilonOffsets,
+            int[] epsilonTargets) {
+        this.numStates = numStates;
+        this.symbols = symbols;
+        this.symbolIds = symbolIds;
+        this.offsets = offsets;
+        this.edgeSymbols = edgeSymbols;
+        this.edgeTargets = edgeTargets;
+        this.epsilonOffsets = epsilonOffsets;
+        this.epsilonTargets = epsilonTargets;
+    }
+
+    static <Symbol> CompactTransitions<Symbol> of(
+            int numStates,
+            Table<Integer, Symbol, Set<Integer>> transitions,
+            Map<Integer, Set<Integer>> epsilonTransitions) {
+        Map<Integer, Map<Symbol, Set<Integer>>> rows = transitions.rowMap();
+        Map<Symbol, Integer> symbolIds = new HashMap<>();
+        List<Symbol> symbols = new ArrayList<>();
+        int[] offsets = new int[numStates + 1];
+        for (int s = 0; s < numStates; s++) {
+            int numEdges = 0;
+            for (Map.Entry<Symbol, Set<Integer>> entry : rows.getOrDefault(s, Collections.emptyMap()).entrySet()) {
+                if (!symbolIds.containsKey(entry.getKey())) {
+                    symbolIds.put(entry.getKey(), symbols.size());
+                    symbols.add(entry.getKey());
+                }
+                numEdges += entry.getValue().size();
+            }
+            offsets[s + 1] = offsets[s] + numEdges;
+        }
+
+        int[] edgeSymbols = new int[offsets[numStates]];
+        int[] edgeTargets = new int[offsets[numStates]];
+        long[] rowEdges = new long[0];
+        for (int s = 0; s < numStates; s++) {
+            int numEdges = offsets[s + 1] - offsets[s];
+            if (numEdges == 0) {
+                continue;
+            }
+            if (rowEdges.length < numEdges) {
+                rowEdges = new long[numEdges];
+            }
+            int e = 0;
+            for (Map.Entry<Symbol, Set<Integer>> entry : rows.get(s).entrySet()) {
+                long symbolId = symbolIds.get(entry.getKey());
+                for (int target : entry.getValue()) {
+                    rowEdges[e++] = symbolId << 32 | target;
+                }
+            }
+            Arrays.sort(rowEdges, 0, numEdges);
+            for (e = 0; e < numEdges; e++) {
+                edgeSymbols[offsets[s] + e] = (int) (rowEdges[e] >>> 32);
+                edgeTargets[offsets[s] + e] = (int) rowEdges[e];
+            }
+        }
+
+        int[] epsilonOffsets = new int[numStates + 1];
+        for (int s = 0; s < numStates; s++) {
+            epsilonOffsets[s + 1] =
+                    epsilonOffsets[s] + epsilonTransitions.getOrDefault(s, Collections.emptySet()).size();
+        }
+        int[] epsilonTargets = new int[epsilonOffsets[numStates]];
+        for (int s = 0; s < numStates; s++) {
+            int e = epsilonOffsets[s];
+            for (int t : epsilonTransitions.getOrDefault(s, Collections.emptySet())) {
+                epsilonTargets[e++] = t;
+            }
+            Arrays.sort(epsilonTargets, epsilonOffsets[s], e);
+        }
+
+        return new CompactTransitions<>(
+                numStates,
+                ImmutableList.copyOf(symbols),
+                symbolIds,
+                offsets,
+                edgeSymbols,
+                edgeTargets,
+                epsilonOffsets,
+                epsilonTargets);
+    }
+
+    /**
+     * Returns the id of the symbol, or -1 if no transition is on it.
+     */
+    int symbolId(Object symbol) {
+        Integer id = symbolIds.get(symbol);
+        return id == null ? -1 : id;
+    }
+
+    Symbol symbol(int symbolId) {
+        return symbols.get(symbolId);
+    }
+
+    int numEdges() {
+        return edgeTargets.length;
+    }
+
+    int edgeStart(int state) {
+        return offsets[state];
+    }
+
+    int edgeEnd(int state) {
+        return offsets[state + 1];
+    }
+
+    int edgeSymbol(int edge) {
+        return edgeSymbols[edge];
+    }
+
+    int edgeTarget(int edge) {
+        return edgeTargets[edge];
+    }
+
+    /**
+     * Returns the first edge of the state on the symbol, or the end of its edges if there is none. The following
+     * edges on the same symbol are next to it.
+     */
+    int firstEdge(int state, int symbolId) {
+        int lo = offsets[state];
+        int hi = offsets[state + 1];
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (edgeSymbols[mid] < symbolId) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    int numEpsilonTransitions() {
+        return epsilonTargets.length;
+    }
+
+    int epsilonStart(int state) {
+        return epsilonOffsets[state];
+    }
+
+    int epsilonEnd(int state) {
+        return epsilonOffsets[state + 1];
+    }
+
+    int epsilonTarget(int index) {
+        return epsilonTargets[index];
+    }
+
+    /**
+     * Epsilon transitions as the rows of a compressed sparse row graph, for algorithms that walk it.
+     */
+    int[] epsilonOffsets() {
+        return epsilonOffsets;
+    }
+
+    int[] epsilonTargets() {
+        return epsilonTargets;
+    }
+
+    /**
+     * Returns the states reached from the state on the symbol, or null if there are none.
+     */
+    Set<Integer> targets(int state, Object symbol) {
+        int symbolId = symbolId(symbol);
+        if (symbolId < 0) {
+            return null;
+        }
+        int edge = firstEdge(state, symbolId);
+        if (edge == offsets[state + 1] || edgeSymbols[edge] != symbolId) {
+            return null;
+        }
+        Set<Integer> targets = new HashSet<>();
+        for (; edge < offsets[state + 1] && edgeSymbols[edge] == symbolId; edge++) {
+            targets.add(edgeTargets[edge]);
+        }
+        return targets;
+    }
+
+    /**
+     * Returns the transitions out of the state as a map from symbol to targets, built on every call.
+     */
+    Map<Symbol, Set<Integer>> row(int state) {
+        if (offsets[state] == offsets[state + 1]) {
+            return ImmutableMap.of();
+        }
+        ImmutableMap.Builder<Symbol, Set<Integer>> row = ImmutableMap.builder();
+        int edge = offsets[state];
+        while (edge < offsets[state + 1]) {
+            int symbolId = edgeSymbols[edge];
+            ImmutableSet.Builder<Integer> targets = ImmutableSet.builder();
+            for (; edge < offsets[state + 1] && edgeSymbols[edge] == symbolId; edge++) {
+                targets.add(edgeTargets[edge]);
+            }
+            row.put(symbols.get(symbolId), targets.build());
+        }
+        return row.build();
+    }
+
+    private Table<Integer, Symbol, Set<Integer>> buildTable() {
+        ImmutableTable.Builder<Integer, Symbol, Set<Integer>> table = ImmutableTable.builder();
+        for (int s = 0; s < numStates; s++) {
+            for (Map.Entry<Symbol, Set<Integer>> entry : row(s).entrySet()) {
+                table.put(s, entry.getKey(), entry.getValue());
+            }
+        }
+        return table.build();
+    }
+
+    private Map<Integer, Set<Integer>> buildEpsilonMap() {
+        ImmutableMap.Builder<Integer, Set<Integer>> map = ImmutableMap.builder();
+        for (int s = 0; s < numStates; s++) {
+            if (epsilonOffsets[s] == epsilonOffsets[s + 1]) {
+                continue;
+            }
+            ImmutableSet.Builder<Integer> targets = ImmutableSet.builder();
+            for (int e = epsilonOffsets[s]; e < epsilonOffsets[s + 1]; e++) {
+                targets.add(epsilonTargets[e]);
+            }
+            map.put(s, targets.build());
+        }
+        return map.build();
+    }
+
+    /**
+     * Two instances are equal if they hold the same transitions, whatever the ids their symbols were interned with.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompactTransitions)) {
+            return false;
+        }
+        CompactTransitions<?> other = (CompactTransitions<?>) o;
+        if (numStates != other.numStates
+                || !Arrays.equals(offsets, other.offsets)
+                || !Arrays.equals(epsilonOffsets, other.epsilonOffsets)
+                || !Arrays.equals(epsilonTargets, other.epsilonTargets)) {
+            return false;
+        }
+        for (int s = 0; s < numStates; s++) {
+            for (int e = offsets[s]; e < offsets[s + 1]; e++) {
+                int otherSymbolId = other.symbolId(symbols.get(edgeSymbols[e]));
+                if (otherSymbolId < 0 || !other.hasEdge(s, otherSymbolId, edgeTargets[e])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean hasEdge(int state, int symbolId, int target) {
+        for (int e = firstEdge(state, symbolId); e < offsets[state + 1] && edgeSymbols[e] == symbolId; e++) {
+            if (edgeTargets[e] == target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        // A sum over the edges, so that it does not depend on the order of symbol ids.
+        int hash = Arrays.hashCode(epsilonOffsets) * 31 + Arrays.hashCode(epsilonTargets);
+        for (int s = 0; s < numStates; s++) {
+            for (int e = offsets[s]; e < offsets[s + 1]; e++) {
+                hash += (s * 31 + symbols.get(edgeSymbols[e]).hashCode()) * 31 + edgeTargets[e];
+            }
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "transitions=" + getTable() + ", epsilonTransitions=" + getEpsilonMap();
+    }
+}
@@ -1,5 +1,9 @@
 package personal.gokul2411s.regular_automata;
 
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+import java.util.List;
 import java.util.function.BiFunction;
 
 import static personal.gokul2411s.regular_automata.AutomatonCopyUtils.*;
@@ -8,9 +12,17 @@ public class Concatenation<Symbol> implements BiFunction<Automaton<Symbol>, Auto
 
     @Override
     public Automaton<Symbol> apply(Automaton<Symbol> firstAutomaton, Automaton<Symbol> secondAutomaton) {
+        return apply(Arrays.asList(firstAutomaton, secondAutomaton));
+    }
+
+    /**
+     * Concatenates any number of automata at once, copying each of them exactly once, instead of recopying the
+     * concatenation so far for each of them as a fold over the pairwise concatenation would.
+     */
+    public Automaton<Symbol> apply(List<Automaton<Symbol>> automata) {
+        Preconditions.checkArgument(!automata.isEmpty(), "Nothing to concatenate");
 
-        int numStatesInFirst = firstAutomaton.getNumStates();
-        int newNumStates = numStatesInFirst + secondAutomaton.getNumStates() + 2;
+        int newNumStates = automata.stream().mapToInt(Automaton::getNumStates).sum() + 2;
         int newInitialState = newNumStates - 2;
         int newFinalState = newNumStates - 1;
 
@@ -19,18 +31,21 @@ public class Concatenation<Symbol> implements BiFunction<Automaton<Symbol>, Auto
                         .withNumStates(newNumStates)
                         .withInitialState(newInitialState)
                         .withFinalState(newFinalState)
-                        .withEpsilonTransition(newInitialState, firstAutomaton.getInitialState());
-
-        addEpsilonTransitions(
-                outputBuilder,
-                firstAutomaton.getFinalStates(),
-                secondAutomaton.getInitialState() + numStatesInFirst);
-        copyTransitions(firstAutomaton, outputBuilder);
-        copyEpsilonTransitions(firstAutomaton, outputBuilder);
-
-        addEpsilonTransitions(outputBuilder, secondAutomaton.getFinalStates(), newFinalState, numStatesInFirst);
-        copyTransitions(secondAutomaton, outputBuilder, numStatesInFirst);
-        copyEpsilonTransitions(secondAutomaton, outputBuilder, numStatesInFirst);
+                        .withEpsilonTransition(newInitialState, automata.get(0).getInitialState());
+
+        int stateOffset = 0;
+        for (int i = 0; i < automata.size(); i++) {
+            Automaton<Symbol> automaton = automata.get(i);
+            int nextStateOffset = stateOffset + automaton.getNumStates();
+            int nextInitialState =
+                    i + 1 < automata.size()
+                            ? automata.get(i + 1).getInitialState() + nextStateOffset
+                            : newFinalState;
+            addEpsilonTransitions(outputBuilder, automaton.getFinalStates(), nextInitialState, stateOffset);
+            copyTransitions(automaton, outputBuilder, stateOffset);
+            copyEpsilonTransitions(automaton, outputBuilder, stateOffset);
+            stateOffset = nextStateOffset;
+        }
 
         return outputBuilder.build();
     }
@@ -0,0 +1,151 @@
+package personal.gokul2411s.regular_automata;
+
+import lombok.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A deterministic automaton over chars compiled into a dense transition table, indexed by state and char class.
+ *
+ * Matching is a loop of array loads over the input, with no allocation. It stops as soon as the outcome is decided:
+ * states from which no accepting state can be reached are all replaced by {@link #DEAD_STATE}, and accepting sinks,
+ * from which every input leads to an accepting state, are marked.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class DenseDfa {
+
+    /**
+     * Target of every transition after which no input is accepted. It is also the initial state if no input at all
+     * is accepted.
+     */
+    public static final int DEAD_STATE = -1;
+
+    private final int numStates;
+
+    private final int initialState;
+
+    @NonNull
+    private final CharClasses charClasses;
+
+    /**
+     * Row-major table of numStates rows and charClasses.getNumClasses() columns.
+     */
+    @NonNull
+    private final int[] transitions;
+
+    @NonNull
+    private final boolean[] accepting;
+
+    @NonNull
+    private final boolean[] acceptingSinks;
+
+    /**
+     * Returns the state reached from the given state on the given char, or {@link #DEAD_STATE}.
+     */
+    public int nextState(int state, char c) {
+        return transitions[state * charClasses.getNumClasses() + charClasses.classOf(c)];
+    }
+
+    public boolean isAccepting(int state) {
+        return state != DEAD_STATE && accepting[state];
+    }
+
+    /**
+     * Returns true if every input from the given state leads to an accepting state.
+     */
+    public boolean isAcceptingSink(int state) {
+        return state != DEAD_STATE && acceptingSinks[state];
+    }
+
+    /**
+     * Returns true if the automaton accepts the whole input.
+     */
+    public boolean matches(CharSequence input) {
+        int[] table = transitions;
+        CharClasses classes = charClasses;
+        int numClasses = classes.getNumClasses();
+        boolean[] sinks = acceptingSinks;
+        int state = initialState;
+        for (int i = 0, n = input.length(); i < n; i++) {
+            if (state == DEAD_STATE) {
+                return false;
+            }
+            if (sinks[state]) {
+                return true;
+            }
+            state = table[state * numClasses + classes.classOf(input.charAt(i))];
+        }
+        return isAccepting(state);
+    }
+
+    /**
+     * Returns true if the automaton accepts the whole input, splitting long inputs into chunks that are run on the
+     * pool in parallel. See {@link ParallelScan}.
+     */
+    public boolean matchesInParallel(CharSequence input, ForkJoinPool pool) {
+        return matchesInParallel(input, pool, ParallelScan.DEFAULT_CHUNK_SIZE);
+    }
+
+    boolean matchesInParallel(CharSequence input, ForkJoinPool pool, int chunkSize) {
+        ParallelScan.Stepper stepper = (state, i) -> nextState(state, input.charAt(i));
+        return isAccepting(ParallelScan.finalState(this, stepper, 0, input.length(), chunkSize, pool));
+    }
+
+    /**
+     * Returns a new matcher for inputs that arrive in chunks.
+     */
+    public Matcher matcher() {
+        return new DenseDfaMatcher(this);
+    }
+
+    private static class DenseDfaMatcher extends Matcher {
+
+        private final DenseDfa dfa;
+        private int state;
+
+        private DenseDfaMatcher(DenseDfa dfa) {
+            this.dfa = dfa;
+            this.state = dfa.initialState;
+        }
+
+        @Override
+        public Matcher feed(char[] chars, int off, int len) {
+            int[] table = dfa.transitions;
+            CharClasses classes = dfa.charClasses;
+            int numClasses = classes.getNumClasses();
+            boolean[] sinks = dfa.acceptingSinks;
+            int current = state;
+            for (int i = off, end = off + len; i < end && current != DEAD_STATE && !sinks[current]; i++) {
+                current = table[current * numClasses + classes.classOf(chars[i])];
+            }
+            state = current;
+            return this;
+        }
+
+        @Override
+        protected boolean isStateAccepting() {
+            return dfa.isAccepting(state);
+        }
+
+        @Override
+        public boolean isDead() {
+            return state == DEAD_STATE;
+        }
+
+        @Override
+        public boolean isAlwaysAccepting() {
+            return dfa.isAcceptingSink(state);
+        }
+
+        @Override
+        protected void resetState() {
+            state = dfa.initialState;
+        }
+
+        @Override
+        protected void toDeadState() {
+            state = DEAD_STATE;
+        }
+    }
+}
@@ -1,106 +1,181 @@
 package personal.gokul2411s.regular_automata;
 
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Sets;
-import com.google.common.collect.Table;
+import com.google.common.collect.*;
 
 import java.util.*;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 public class Determinization<Symbol> implements Function<Automaton<Symbol>, Automaton<Symbol>> {
 
     @Override
     public Automaton<Symbol> apply(Automaton<Symbol> automaton) {
+        return apply(automaton, new ArrayList<>());
+    }
 
-        Table<Integer, Symbol, Set<Integer>> compositeTransitions = HashBasedTable.create();
-
-        Set<Integer> compositeStartState = automaton.epsilonClosure(automaton.getInitialState());
-
-        Comparator<Set<Integer>> comparator = new SetComparator();
-        Map<Set<Integer>, Integer> compositeStates = new TreeMap<>(comparator);
-        compositeStates.put(compositeStartState, 0);
-
-        // Start BFS on composite states.
-        Queue<Set<Integer>> bfsCompositeStates = new LinkedList<>();
-        bfsCompositeStates.add(compositeStartState);
-        Set<Set<Integer>> visitedCompositeStates = new TreeSet<>(comparator);
+    /**
+     * Determinizes the automaton, and fills memberStates with the states of the input automaton that make up each
+     * state of the output, indexed by output state.
+     */
+    Automaton<Symbol> apply(Automaton<Symbol> automaton, List<Set<Integer>> memberStates) {
 
-        while (!bfsCompositeStates.isEmpty()) {
-            Set<Integer> compositeState = bfsCompositeStates.remove();
-            if (visitedCompositeStates.contains(compositeState)) {
-                continue;
-            }
-            visitedCompositeStates.add(compositeState);
-
-            Map<Symbol, Set<Integer>> compositeStateTransitions = new HashMap<>();
-            for (int state : compositeState) {
-                Map<Symbol, Set<Integer>> stateTransitions = automaton.stateTransitions(state);
-                for (Map.Entry<Symbol, Set<Integer>> entry : stateTransitions.entrySet()) {
-                    Symbol sym = entry.getKey();
-                    Set<Integer> compositeStateTransitionsForSymbol = compositeStateTransitions.get(sym);
-                    if (compositeStateTransitionsForSymbol == null) {
-                        compositeStateTransitionsForSymbol = new HashSet<>();
-                        compositeStateTransitions.put(sym, compositeStateTransitionsForSymbol);
-                    }
-                    compositeStateTransitionsForSymbol.addAll(entry.getValue());
+        Table<Integer, Symbol, Set<Integer>> compositeTransitions = HashBasedTable.create();
+        Automaton.AutomatonBuilder<Symbol> outputBuilder = Automaton.builder();
+
+        // Composite states are numbered in the order they are found, so walking the ids in order is a BFS.
+        StateSetTable compositeStates = new StateSetTable();
+        SparseIntSet targets = new SparseIntSet(automaton.getNumStates());
+        compositeStates.intern(startState(automaton, targets));
+
+        for (int id = 0; id < compositeStates.size(); id++) {
+            int compositeStateId = id;
+            RangeMap<Comparable<?>, Integer> coalescedRangeTransitions = TreeRangeMap.create();
+            expand(automaton, compositeStates.get(compositeStateId), targets, new ExpansionSink<Symbol>() {
+
+                @Override
+                public void symbolTransition(Symbol symbol, SparseIntSet symbolTargets) {
+                    compositeTransitions.put(
+                            compositeStateId, symbol, Sets.newHashSet(compositeStates.intern(symbolTargets)));
                 }
-            }
 
-            int compositeStateId = compositeStates.get(compositeState);
-            for (Map.Entry<Symbol, Set<Integer>> entry : compositeStateTransitions.entrySet()) {
-                Set<Integer> destinationCompositeState = automaton.epsilonClosure(entry.getValue());
-                Integer destinationCompositeStateId = compositeStates.get(destinationCompositeState);
-                if (destinationCompositeStateId == null) {
-                    destinationCompositeStateId = compositeStates.size();
-                    compositeStates.put(destinationCompositeState, destinationCompositeStateId);
+                @Override
+                public void rangeTransition(Range<Comparable<?>> range, SparseIntSet rangeTargets) {
+                    coalescedRangeTransitions.putCoalescing(range, compositeStates.intern(rangeTargets));
                 }
-                compositeTransitions.put(
-                        compositeStateId, entry.getKey(), Sets.newHashSet(destinationCompositeStateId));
-                bfsCompositeStates.add(destinationCompositeState);
+            });
+            for (Map.Entry<Range<Comparable<?>>, Integer> entry :
+                    coalescedRangeTransitions.asMapOfRanges().entrySet()) {
+                outputBuilder.withRangeTransition(compositeStateId, entry.getKey(), entry.getValue());
             }
         }
 
-        Set<Integer> finalStates = automaton.getFinalStates();
-        Set<Integer> compositeFinalStateIds =
-                compositeStates.entrySet().stream()
-                        .filter(e -> !Sets.intersection(e.getKey(), finalStates).isEmpty())
-                        .map(e -> e.getValue())
-                        .collect(Collectors.toSet());
-
-        return Automaton.<Symbol>builder()
+        List<StateSet> stateSets = new ArrayList<>();
+        for (int id = 0; id < compositeStates.size(); id++) {
+            stateSets.add(compositeStates.get(id));
+        }
+        return outputBuilder
                 .withNumStates(compositeStates.size())
                 .withInitialState(0)
-                .withFinalStates(compositeFinalStateIds)
+                .withFinalStates(compositeFinalStates(automaton, stateSets, memberStates))
                 .withTransitions(compositeTransitions)
                 .build();
     }
 
-    private static class SetComparator implements Comparator<Set<Integer>> {
+    /**
+     * Receives the transitions out of one composite state. The targets are the live states in the closure of the
+     * states reached, never empty, and only valid until the call returns.
+     */
+    interface ExpansionSink<Symbol> {
 
-        @Override
-        public int compare(Set<Integer> s1, Set<Integer> s2) {
+        void symbolTransition(Symbol symbol, SparseIntSet targets);
 
-            Iterator<Integer> it1 = s1.iterator();
-            Iterator<Integer> it2 = s2.iterator();
+        void rangeTransition(Range<Comparable<?>> range, SparseIntSet targets);
+    }
 
-            while (it1.hasNext() && it2.hasNext()) {
-                int next1 = it1.next();
-                int next2 = it2.next();
+    /**
+     * Fills targets with the members of the initial composite state, the live states in the closure of the initial
+     * state, and returns it.
+     */
+    static <Symbol> SparseIntSet startState(Automaton<Symbol> automaton, SparseIntSet targets) {
+        targets.clear();
+        EpsilonClosures.addLiveClosure(
+                targets, automaton.getInitialState(), automaton.getEpsilonClosures(), automaton.getLiveStates());
+        return targets;
+    }
 
-                if (next1 < next2) {
-                    return -1;
-                } else if (next1 > next2) {
-                    return 1;
+    /**
+     * Hands the transitions out of the composite state to the sink, symbols in the order of their interned ids, then
+     * ranges in ascending order. Symbols and ranges leading to no live state are left out. Only reads the automaton,
+     * so it may run on several threads at once, each with targets of its own.
+     *
+     * States from which no final state can be reached are dropped from the targets, as they cannot make a composite
+     * state accept, so composite states that only differ in them need not be told apart.
+     */
+    static <Symbol> void expand(
+            Automaton<Symbol> automaton, StateSet compositeState, SparseIntSet targets, ExpansionSink<Symbol> sink) {
+        CompactTransitions<Symbol> edges = automaton.getEdges();
+        int[][] closures = automaton.getEpsilonClosures();
+        boolean[] liveStates = automaton.getLiveStates();
+
+        // Every edge out of a member as symbol id and target in one long, so that sorting groups them by symbol.
+        int numEdges = 0;
+        for (int i = 0; i < compositeState.size(); i++) {
+            int state = compositeState.get(i);
+            numEdges += edges.edgeEnd(state) - edges.edgeStart(state);
+        }
+        long[] symbolEdges = new long[numEdges];
+        int n = 0;
+        for (int i = 0; i < compositeState.size(); i++) {
+            int state = compositeState.get(i);
+            for (int e = edges.edgeStart(state); e < edges.edgeEnd(state); e++) {
+                symbolEdges[n++] = (long) edges.edgeSymbol(e) << 32 | edges.edgeTarget(e);
+            }
+        }
+        Arrays.sort(symbolEdges);
+
+        // Overlapping ranges of the member states are split into disjoint pieces.
+        RangeMap<Comparable<?>, Set<Integer>> compositeRanges = TreeRangeMap.create();
+        for (int i = 0; i < compositeState.size(); i++) {
+            for (Map.Entry<Range<Comparable<?>>, Set<Integer>> entry :
+                    automaton.stateRangeTransitions(compositeState.get(i)).asMapOfRanges().entrySet()) {
+                RangeMaps.addTargets(compositeRanges, entry.getKey(), entry.getValue());
+            }
+        }
+
+        for (int start = 0; start < numEdges; ) {
+            int symbolId = (int) (symbolEdges[start] >>> 32);
+            targets.clear();
+            int end = start;
+            for (; end < numEdges && (int) (symbolEdges[end] >>> 32) == symbolId; end++) {
+                EpsilonClosures.addLiveClosure(targets, (int) symbolEdges[end], closures, liveStates);
+            }
+            start = end;
+
+            // Symbols with a transition of their own are cut out of the pieces, and take the targets of the piece
+            // they were cut from.
+            Symbol symbol = edges.symbol(symbolId);
+            if (symbol instanceof Comparable) {
+                Set<Integer> rangeTargets = compositeRanges.get((Comparable<?>) symbol);
+                if (rangeTargets != null) {
+                    for (int t : rangeTargets) {
+                        EpsilonClosures.addLiveClosure(targets, t, closures, liveStates);
+                    }
+                    compositeRanges.remove(RangeMaps.singleton((Comparable<?>) symbol));
                 }
             }
+            if (!targets.isEmpty()) {
+                sink.symbolTransition(symbol, targets);
+            }
+        }
 
-            if (!it1.hasNext() && it2.hasNext()) {
-                return -1;
-            } else if (it1.hasNext() && !it2.hasNext()) {
-                return 1;
+        for (Map.Entry<Range<Comparable<?>>, Set<Integer>> entry : compositeRanges.asMapOfRanges().entrySet()) {
+            targets.clear();
+            for (int t : entry.getValue()) {
+                EpsilonClosures.addLiveClosure(targets, t, closures, liveStates);
+            }
+            if (!targets.isEmpty()) {
+                sink.rangeTransition(entry.getKey(), targets);
+            }
+        }
+    }
+
+    /**
+     * Returns the ids of the composite states that hold a final state, and fills memberStates with the members of
+     * every composite state, indexed by id.
+     */
+    static <Symbol> Set<Integer> compositeFinalStates(
+            Automaton<Symbol> automaton, List<StateSet> compositeStates, List<Set<Integer>> memberStates) {
+        boolean[] finalStates = new boolean[automaton.getNumStates()];
+        for (int s : automaton.getFinalStates()) {
+            finalStates[s] = true;
+        }
+        memberStates.clear();
+        Set<Integer> compositeFinalStateIds = new HashSet<>();
+        for (int id = 0; id < compositeStates.size(); id++) {
+            memberStates.add(compositeStates.get(id).toSet());
+            if (compositeStates.get(id).containsAny(finalStates)) {
+                compositeFinalStateIds.add(id);
             }
-            return 0;
         }
+        return compositeFinalStateIds;
     }
 }
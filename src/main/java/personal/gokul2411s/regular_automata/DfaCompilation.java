@@ -0,0 +1,182 @@
+package personal.gokul2411s.regular_automata;
+
+import com.google.common.collect.Range;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Compiles a deterministic automaton over chars (such as the output of {@link Determinization}) into a
+ * {@link DenseDfa}. Chars on which every state behaves the same are folded into a single table column.
+ */
+public class DfaCompilation implements Function<Automaton<Character>, DenseDfa> {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public DenseDfa apply(Automaton<Character> dfa) {
+
+        validateDeterministic(dfa);
+
+        CompactTransitions<Character> edges = dfa.getEdges();
+        CharClasses.CharClassesBuilder classesBuilder = CharClasses.builder();
+        for (int state = 0; state < dfa.getNumStates(); state++) {
+            Map<Integer, List<Range<Character>>> rangesByTarget = new HashMap<>();
+            for (int e = edges.edgeStart(state); e < edges.edgeEnd(state); e++) {
+                rangesByTarget.computeIfAbsent(edges.edgeTarget(e), t -> new ArrayList<>())
+                        .add(Range.singleton(edges.symbol(edges.edgeSymbol(e))));
+            }
+            for (Map.Entry<Range<Comparable<?>>, Set<Integer>> entry :
+                    dfa.stateRangeTransitions(state).asMapOfRanges().entrySet()) {
+                int target = entry.getValue().iterator().next();
+                rangesByTarget.computeIfAbsent(target, t -> new ArrayList<>())
+                        .add((Range<Character>) (Range<?>) entry.getKey());
+            }
+            for (List<Range<Character>> ranges : rangesByTarget.values()) {
+                classesBuilder.withDistinguishedRanges(ranges);
+            }
+        }
+        CharClasses classes = classesBuilder.build();
+
+        return tabulate(dfa, classes::classOf, (range, columns) -> {
+            char[] bounds = CharClasses.bounds((Range<Character>) (Range<?>) range);
+            if (bounds != null) {
+                classes.forEachClassIn(bounds[0], bounds[1], columns);
+            }
+        }, classes);
+    }
+
+    /**
+     * Compiles a deterministic automaton whose symbols are already class ids of the given char classes.
+     */
+    @SuppressWarnings("unchecked")
+    public static DenseDfa compile(Automaton<Integer> classDfa, CharClasses classes) {
+        validateDeterministic(classDfa);
+        for (int classId : classDfa.getEdges().getSymbols()) {
+            validateClass(classId, classes);
+        }
+        return tabulate(classDfa, Integer::intValue, (range, columns) -> {
+            Range<Integer> classRange = (Range<Integer>) (Range<?>) range;
+            for (int classId = 0; classId < classes.getNumClasses(); classId++) {
+                if (classRange.contains(classId)) {
+                    columns.accept(classId);
+                }
+            }
+        }, classes);
+    }
+
+    private static void validateClass(int classId, CharClasses classes) {
+        if (classId < 0 || classId >= classes.getNumClasses()) {
+            throw new InvalidAutomatonException("Symbol " + classId + " is not a char class");
+        }
+    }
+
+    private static <Symbol> void validateDeterministic(Automaton<Symbol> dfa) {
+        if (!dfa.isDeterministic()) {
+            throw new InvalidAutomatonException("Automaton is not deterministic");
+        }
+    }
+
+    private static <Symbol> DenseDfa tabulate(
+            Automaton<Symbol> dfa,
+            ToIntFunction<Symbol> classOf,
+            BiConsumer<Range<Comparable<?>>, IntConsumer> rangeClasses,
+            CharClasses classes) {
+        int numClasses = classes.getNumClasses();
+        int[] transitions = new int[dfa.getNumStates() * numClasses];
+        Arrays.fill(transitions, DenseDfa.DEAD_STATE);
+        CompactTransitions<Symbol> edges = dfa.getEdges();
+        int[] symbolClasses = new int[edges.getSymbols().size()];
+        for (int symbolId = 0; symbolId < symbolClasses.length; symbolId++) {
+            symbolClasses[symbolId] = classOf.applyAsInt(edges.symbol(symbolId));
+        }
+        for (int s = 0; s < dfa.getNumStates(); s++) {
+            for (int e = edges.edgeStart(s); e < edges.edgeEnd(s); e++) {
+                transitions[s * numClasses + symbolClasses[edges.edgeSymbol(e)]] = edges.edgeTarget(e);
+            }
+        }
+        for (int state : dfa.getRangeTransitions().keySet()) {
+            int row = state * numClasses;
+            for (Map.Entry<Range<Comparable<?>>, Set<Integer>> entry :
+                    dfa.stateRangeTransitions(state).asMapOfRanges().entrySet()) {
+                int target = entry.getValue().iterator().next();
+                rangeClasses.accept(entry.getKey(), classId -> transitions[row + classId] = target);
+            }
+        }
+
+        boolean[] accepting = new boolean[dfa.getNumStates()];
+        for (int s : dfa.getFinalStates()) {
+            accepting[s] = true;
+        }
+
+        int initialState = dfa.getInitialState();
+        if (dfa.isDeadState(initialState)) {
+            initialState = DenseDfa.DEAD_STATE;
+        }
+        for (int i = 0; i < transitions.length; i++) {
+            if (transitions[i] != DenseDfa.DEAD_STATE && dfa.isDeadState(transitions[i])) {
+                transitions[i] = DenseDfa.DEAD_STATE;
+            }
+        }
+
+        return new DenseDfa(
+                dfa.getNumStates(),
+                initialState,
+                classes,
+                transitions,
+                accepting,
+                acceptingSinks(transitions, accepting, numClasses));
+    }
+
+    /**
+     * Returns whether every input leads from each state to an accepting state. The states that are not are those that
+     * can reach a non-accepting state or a missing transition, found in one search backwards over the transitions
+     * from the states that are not accepting or have a missing transition.
+     */
+    private static boolean[] acceptingSinks(int[] transitions, boolean[] accepting, int numClasses) {
+        int numStates = accepting.length;
+        boolean[] sinks = Arrays.copyOf(accepting, numStates);
+
+        // Predecessors of every state in compressed rows, one entry per transition.
+        int[] predecessorOffsets = new int[numStates + 1];
+        for (int t : transitions) {
+            if (t != DenseDfa.DEAD_STATE) {
+                predecessorOffsets[t + 1]++;
+            }
+        }
+        for (int s = 0; s < numStates; s++) {
+            predecessorOffsets[s + 1] += predecessorOffsets[s];
+        }
+        int[] predecessors = new int[predecessorOffsets[numStates]];
+        int[] fill = Arrays.copyOf(predecessorOffsets, numStates);
+        int[] bfsStates = new int[numStates];
+        int bfsEnd = 0;
+        for (int s = 0; s < numStates; s++) {
+            for (int c = 0; c < numClasses; c++) {
+                int t = transitions[s * numClasses + c];
+                if (t != DenseDfa.DEAD_STATE) {
+                    predecessors[fill[t]++] = s;
+                } else if (sinks[s]) {
+                    sinks[s] = false;
+                }
+            }
+            if (!sinks[s]) {
+                bfsStates[bfsEnd++] = s;
+            }
+        }
+
+        for (int bfsStart = 0; bfsStart < bfsEnd; bfsStart++) {
+            int t = bfsStates[bfsStart];
+            for (int i = predecessorOffsets[t]; i < predecessorOffsets[t + 1]; i++) {
+                int p = predecessors[i];
+                if (sinks[p]) {
+                    sinks[p] = false;
+                    bfsStates[bfsEnd++] = p;
+                }
+            }
+        }
+        return sinks;
+    }
+}
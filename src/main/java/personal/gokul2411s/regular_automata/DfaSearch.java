@@ -0,0 +1,111 @@
+package personal.gokul2411s.regular_automata;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static personal.gokul2411s.regular_automata.AutomatonFactory.*;
+
+/**
+ * Finds leftmost-longest matches of a regex inside an input with two dense automata: one for the reversed regex
+ * followed by anything, and one for the regex itself.
+ *
+ * A backward scan with the first, from the end of the input, reaches an accepting state exactly at the positions
+ * where some match starts. A forward scan with the second from the leftmost such position then extends the match as
+ * far as it goes.
+ */
+class DfaSearch {
+
+    @Getter
+    private final DenseDfa startDfa;
+
+    @Getter
+    private final DenseDfa anchoredDfa;
+
+    /**
+     * Takes an automaton of the regex over the given char classes, and the dense automaton compiled from it.
+     */
+    DfaSearch(Automaton<Integer> automaton, CharClasses charClasses, DenseDfa anchoredDfa) {
+        Automaton<Integer> anySuffix =
+                kleeneStarred(automatonAcceptingRange(0, charClasses.getNumClasses() - 1));
+        this.startDfa =
+                compiled(minimized(determinized(concatenated(anySuffix, reversed(automaton)))), charClasses);
+        this.anchoredDfa = anchoredDfa;
+    }
+
+    /**
+     * Returns the leftmost-longest match that starts at or after from, or null.
+     */
+    Match find(CharSequence input, int from) {
+        int start = -1;
+        int state = startDfa.getInitialState();
+        for (int i = input.length(); state != DenseDfa.DEAD_STATE; i--) {
+            if (startDfa.isAcceptingSink(state)) {
+                // Matches start at every position from here leftwards.
+                start = from;
+                break;
+            }
+            if (startDfa.isAccepting(state)) {
+                start = i;
+            }
+            if (i == from) {
+                break;
+            }
+            state = startDfa.nextState(state, input.charAt(i - 1));
+        }
+        return start < 0 ? null : new Match(start, longestEnd(input, start));
+    }
+
+    /**
+     * Returns the successive leftmost-longest matches inside the input, from a single backward scan.
+     */
+    List<Match> findAll(CharSequence input) {
+        BitSet starts = new BitSet(input.length() + 1);
+        int state = startDfa.getInitialState();
+        for (int i = input.length(); state != DenseDfa.DEAD_STATE; i--) {
+            if (startDfa.isAcceptingSink(state)) {
+                starts.set(0, i + 1);
+                break;
+            }
+            if (startDfa.isAccepting(state)) {
+                starts.set(i);
+            }
+            if (i == 0) {
+                break;
+            }
+            state = startDfa.nextState(state, input.charAt(i - 1));
+        }
+
+        List<Match> matches = new ArrayList<>();
+        int start = starts.nextSetBit(0);
+        while (start >= 0) {
+            int end = longestEnd(input, start);
+            matches.add(new Match(start, end));
+            start = starts.nextSetBit(end > start ? end : end + 1);
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the end of the longest match from start, which must be the start of some match.
+     */
+    private int longestEnd(CharSequence input, int start) {
+        int state = anchoredDfa.getInitialState();
+        int end = start;
+        for (int i = start, n = input.length(); i < n; i++) {
+            if (anchoredDfa.isAcceptingSink(state)) {
+                return n;
+            }
+            state = anchoredDfa.nextState(state, input.charAt(i));
+            if (state == DenseDfa.DEAD_STATE) {
+                break;
+            }
+            if (anchoredDfa.isAccepting(state)) {
+                end = i + 1;
+            }
+        }
+        return end;
+    }
+}
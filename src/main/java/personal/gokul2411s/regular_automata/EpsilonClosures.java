@@ -0,0 +1,117 @@
+package personal.gokul2411s.regular_automata;
+
+import java.util.Arrays;
+
+final class EpsilonClosures {
+
+    /**
+     * Returns the sorted epsilon closure of every state. The epsilon graph is condensed into its strongly connected
+     * components with Tarjan's algorithm, which completes a component only after every component it reaches, so the
+     * closure of a component is its members plus the already computed closures of its successors. States of one
+     * component share a single array.
+     *
+     * The epsilon transitions of state s lead to the states at [offsets[s], offsets[s + 1]) in targets.
+     */
+    static int[][] compute(int numStates, int[] offsets, int[] targets) {
+
+        int[][] closures = new int[numStates][];
+        int[] index = new int[numStates];
+        int[] low = new int[numStates];
+        int[] edgePositions = new int[numStates];
+        boolean[] onStack = new boolean[numStates];
+        int[] sccStack = new int[numStates];
+        int[] callStack = new int[numStates];
+        SparseIntSet closure = new SparseIntSet(numStates);
+        Arrays.fill(index, -1);
+        int nextIndex = 0;
+
+        for (int root = 0; root < numStates; root++) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            int sccTop = 0;
+            int callTop = 0;
+            index[root] = low[root] = nextIndex++;
+            edgePositions[root] = offsets[root];
+            sccStack[sccTop++] = root;
+            onStack[root] = true;
+            callStack[callTop++] = root;
+
+            while (callTop > 0) {
+                int v = callStack[callTop - 1];
+                if (edgePositions[v] < offsets[v + 1]) {
+                    int w = targets[edgePositions[v]++];
+                    if (index[w] < 0) {
+                        index[w] = low[w] = nextIndex++;
+                        edgePositions[w] = offsets[w];
+                        sccStack[sccTop++] = w;
+                        onStack[w] = true;
+                        callStack[callTop++] = w;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+
+                callTop--;
+                if (callTop > 0) {
+                    int u = callStack[callTop - 1];
+                    low[u] = Math.min(low[u], low[v]);
+                }
+                if (low[v] != index[v]) {
+                    continue;
+                }
+
+                int sccStart = sccTop;
+                do {
+                    sccStart--;
+                    onStack[sccStack[sccStart]] = false;
+                } while (sccStack[sccStart] != v);
+
+                closure.clear();
+                for (int i = sccStart; i < sccTop; i++) {
+                    closure.add(sccStack[i]);
+                }
+                for (int i = sccStart; i < sccTop; i++) {
+                    int member = sccStack[i];
+                    for (int e = offsets[member]; e < offsets[member + 1]; e++) {
+                        int[] successorClosure = closures[targets[e]];
+                        if (successorClosure != null) {
+                            for (int s : successorClosure) {
+                                closure.add(s);
+                            }
+                        }
+                    }
+                }
+                int[] sccClosure = new int[closure.size()];
+                for (int i = 0; i < sccClosure.length; i++) {
+                    sccClosure[i] = closure.get(i);
+                }
+                Arrays.sort(sccClosure);
+                for (int i = sccStart; i < sccTop; i++) {
+                    closures[sccStack[i]] = sccClosure;
+                }
+                sccTop = sccStart;
+            }
+        }
+        return closures;
+    }
+
+    /**
+     * Adds the live states in the closure of the state. Dead states are left out: in a closure they only reach other
+     * dead states, and a set of states that differ only in them cannot be told apart by any input.
+     */
+    static void addLiveClosure(SparseIntSet states, int state, int[][] closures, boolean[] liveStates) {
+        if (!liveStates[state] || states.contains(state)) {
+            // Everything the state reaches is already in, as the closure is closed.
+            return;
+        }
+        for (int s : closures[state]) {
+            if (liveStates[s]) {
+                states.add(s);
+            }
+        }
+    }
+
+    private EpsilonClosures() { }
+}
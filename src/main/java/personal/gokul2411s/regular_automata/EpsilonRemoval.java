@@ -0,0 +1,61 @@
+package personal.gokul2411s.regular_automata;
+
+import com.google.common.collect.Range;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Produces an equivalent automaton without epsilon transitions: every state takes over the transitions of all states
+ * in its epsilon closure, and is final if any of them is. States that are then only reachable through epsilon
+ * transitions become unreachable and are dropped, so the output is usually much smaller than the input.
+ */
+public class EpsilonRemoval<Symbol> implements Function<Automaton<Symbol>, Automaton<Symbol>> {
+
+    @Override
+    public Automaton<Symbol> apply(Automaton<Symbol> automaton) {
+
+        int[][] closures = automaton.getEpsilonClosures();
+        CompactTransitions<Symbol> edges = automaton.getEdges();
+        Set<Integer> finalStates = automaton.getFinalStates();
+
+        Automaton.AutomatonBuilder<Symbol> outputBuilder = Automaton.<Symbol>builder().withInitialState(0);
+
+        int[] stateIds = new int[automaton.getNumStates()];
+        Arrays.fill(stateIds, -1);
+        stateIds[automaton.getInitialState()] = 0;
+        int numStates = 1;
+        Queue<Integer> bfsStates = new LinkedList<>();
+        bfsStates.add(automaton.getInitialState());
+
+        while (!bfsStates.isEmpty()) {
+            int state = bfsStates.remove();
+            int stateId = stateIds[state];
+            for (int member : closures[state]) {
+                if (finalStates.contains(member)) {
+                    outputBuilder.withFinalState(stateId);
+                }
+                for (int e = edges.edgeStart(member); e < edges.edgeEnd(member); e++) {
+                    int target = edges.edgeTarget(e);
+                    if (stateIds[target] < 0) {
+                        stateIds[target] = numStates++;
+                        bfsStates.add(target);
+                    }
+                    outputBuilder.withTransition(stateId, edges.symbol(edges.edgeSymbol(e)), stateIds[target]);
+                }
+                for (Map.Entry<Range<Comparable<?>>, Set<Integer>> entry :
+                        automaton.stateRangeTransitions(member).asMapOfRanges().entrySet()) {
+                    for (int target : entry.getValue()) {
+                        if (stateIds[target] < 0) {
+                            stateIds[target] = numStates++;
+                            bfsStates.add(target);
+                        }
+                        outputBuilder.withRangeTransition(stateId, entry.getKey(), stateIds[target]);
+                    }
+                }
+            }
+        }
+
+        return outputBuilder.withNumStates(numStates).build();
+    }
+}
@@ -0,0 +1,158 @@
+package personal.gokul2411s.regular_automata;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Builds the position automaton of a regex syntax tree, over char classes. Every literal and catch-all of the tree is
+ * a position, and the automaton has one state per position plus an initial state. A state is entered on the symbol
+ * of its position, from the initial state if the position can come first and from every position it can follow.
+ *
+ * The automaton has no epsilon transitions, and is built in one pass over the tree without copying any intermediate
+ * automaton.
+ */
+public class GlushkovConstruction implements Function<RegexNode, Automaton<Integer>> {
+
+    private final CharClasses charClasses;
+
+    public GlushkovConstruction(CharClasses charClasses) {
+        this.charClasses = charClasses;
+    }
+
+    @Override
+    public Automaton<Integer> apply(RegexNode node) {
+        Positions positions = new Positions();
+        Fragment fragment = node.accept(positions);
+
+        int numStates = positions.symbols.size() + 1;
+        Automaton.AutomatonBuilder<Integer> outputBuilder =
+                Automaton.<Integer>builder()
+                        .withNumStates(numStates)
+                        .withInitialState(0);
+
+        if (fragment.isNullable()) {
+            outputBuilder.withFinalState(0);
+        }
+        for (int p = fragment.getLast().nextSetBit(0); p >= 0; p = fragment.getLast().nextSetBit(p + 1)) {
+            outputBuilder.withFinalState(p);
+        }
+        for (int p = fragment.getFirst().nextSetBit(0); p >= 0; p = fragment.getFirst().nextSetBit(p + 1)) {
+            withTransition(outputBuilder, 0, p, positions.symbols.get(p - 1));
+        }
+        for (int q = 1; q < numStates; q++) {
+            BitSet follow = positions.follows.get(q - 1);
+            for (int p = follow.nextSetBit(0); p >= 0; p = follow.nextSetBit(p + 1)) {
+                withTransition(outputBuilder, q, p, positions.symbols.get(p - 1));
+            }
+        }
+        return outputBuilder.build();
+    }
+
+    private void withTransition(
+            Automaton.AutomatonBuilder<Integer> outputBuilder, int from, int to, RegexNode symbol) {
+        if (symbol instanceof RegexNode.Literal) {
+            outputBuilder.withTransition(from, charClasses.classOf(((RegexNode.Literal) symbol).getValue()), to);
+        } else {
+            outputBuilder.withRangeTransition(from, 0, charClasses.getNumClasses() - 1, to);
+        }
+    }
+
+    /**
+     * Whether a subtree matches the empty input, and the positions that can start and end its matches.
+     */
+    @Value
+    private static class Fragment {
+
+        private final boolean nullable;
+
+        private final BitSet first;
+
+        private final BitSet last;
+    }
+
+    /**
+     * Numbers the positions from 1 in pattern order, and collects the positions that can follow each of them.
+     */
+    private static class Positions implements RegexNode.Visitor<Fragment> {
+
+        private final List<RegexNode> symbols = new ArrayList<>();
+        private final List<BitSet> follows = new ArrayList<>();
+
+        @Override
+        public Fragment visitEmpty(RegexNode.Empty empty) {
+            return new Fragment(true, new BitSet(), new BitSet());
+        }
+
+        @Override
+        public Fragment visitLiteral(RegexNode.Literal literal) {
+            return position(literal);
+        }
+
+        @Override
+        public Fragment visitAnyChar(RegexNode.AnyChar anyChar) {
+            return position(anyChar);
+        }
+
+        private Fragment position(RegexNode symbol) {
+            symbols.add(symbol);
+            follows.add(new BitSet());
+            BitSet positions = new BitSet();
+            positions.set(symbols.size());
+            return new Fragment(false, positions, (BitSet) positions.clone());
+        }
+
+        @Override
+        public Fragment visitSequence(RegexNode.Sequence sequence) {
+            Fragment out = null;
+            for (RegexNode node : sequence.getNodes()) {
+                Fragment next = node.accept(this);
+                if (out == null) {
+                    out = next;
+                    continue;
+                }
+                addFollows(out.getLast(), next.getFirst());
+                BitSet first = out.getFirst();
+                if (out.isNullable()) {
+                    first.or(next.getFirst());
+                }
+                BitSet last = next.getLast();
+                if (next.isNullable()) {
+                    last.or(out.getLast());
+                }
+                out = new Fragment(out.isNullable() && next.isNullable(), first, last);
+            }
+            return out;
+        }
+
+        @Override
+        public Fragment visitAlternation(RegexNode.Alternation alternation) {
+            boolean nullable = false;
+            BitSet first = new BitSet();
+            BitSet last = new BitSet();
+            for (RegexNode node : alternation.getNodes()) {
+                Fragment next = node.accept(this);
+                nullable |= next.isNullable();
+                first.or(next.getFirst());
+                last.or(next.getLast());
+            }
+            return new Fragment(nullable, first, last);
+        }
+
+        @Override
+        public Fragment visitRepetition(RegexNode.Repetition repetition) {
+            Fragment inner = repetition.getNode().accept(this);
+            addFollows(inner.getLast(), inner.getFirst());
+            return new Fragment(true, inner.getFirst(), inner.getLast());
+        }
+
+        private void addFollows(BitSet from, BitSet to) {
+            for (int q = from.nextSetBit(0); q >= 0; q = from.nextSetBit(q + 1)) {
+                follows.get(q - 1).or(to);
+            }
+        }
+    }
+}
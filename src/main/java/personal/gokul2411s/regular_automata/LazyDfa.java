@@ -0,0 +1,305 @@
+package personal.gokul2411s.regular_automata;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Matches with an automaton over char classes by determinizing it on the fly: a composite state is only built when
+ * the input reaches it, and the transitions out of it are only computed when taken.
+ *
+ * Each thread keeps its own cache of at most maxCachedStates composite states, which is flushed when full. When the
+ * cache is flushed too often for the amount of input it gets through, the match falls back to stepping through the
+ * automaton directly, as building composite states no longer pays off.
+ */
+public class LazyDfa {
+
+    /**
+     * A flush counts towards thrashing if fewer than this many chars per cached state were matched since the last one.
+     */
+    private static final int MIN_CHARS_PER_CACHED_STATE = 10;
+
+    /**
+     * Number of thrashing flushes after which a match falls back to stepping through the automaton.
+     */
+    private static final int MAX_THRASHING_FLUSHES = 3;
+
+    @Getter
+    private final Automaton<Integer> automaton;
+
+    @Getter
+    private final CharClasses charClasses;
+
+    @Getter
+    private final int maxCachedStates;
+
+    private final ThreadLocal<StateCache> caches;
+
+    /**
+     * Interned symbol id of every char class in the automaton, or -1 for classes it has no transition on.
+     */
+    private final int[] classSymbolIds;
+
+    private final boolean[] finalStates;
+
+    public LazyDfa(Automaton<Integer> automaton, CharClasses charClasses, int maxCachedStates) {
+        Preconditions.checkNotNull(automaton);
+        Preconditions.checkNotNull(charClasses);
+        Preconditions.checkArgument(maxCachedStates >= 2, "Need room for at least two cached states");
+        this.automaton = automaton;
+        this.charClasses = charClasses;
+        this.maxCachedStates = maxCachedStates;
+        int[] classSymbolIds = new int[charClasses.getNumClasses()];
+        for (int classId = 0; classId < classSymbolIds.length; classId++) {
+            classSymbolIds[classId] = automaton.getEdges().symbolId(classId);
+        }
+        boolean[] finalStates = new boolean[automaton.getNumStates()];
+        for (int s : automaton.getFinalStates()) {
+            finalStates[s] = true;
+        }
+        this.classSymbolIds = classSymbolIds;
+        this.finalStates = finalStates;
+        // Built from locals only, so that the cache a thread keeps does not keep this LazyDfa reachable.
+        this.caches = ThreadLocal.withInitial(
+                () -> new StateCache(automaton, charClasses, maxCachedStates, classSymbolIds, finalStates));
+    }
+
+    /**
+     * Returns true if the automaton accepts the whole input.
+     */
+    public boolean matches(CharSequence input) {
+        return matches(caches.get(), input);
+    }
+
+    /**
+     * Returns a test for whole-input matches bound to the cache of the calling thread, which saves looking the cache
+     * up on every input. It must only be used on the calling thread.
+     */
+    Predicate<CharSequence> threadMatcher() {
+        StateCache cache = caches.get();
+        return input -> matches(cache, input);
+    }
+
+    private boolean matches(StateCache cache, CharSequence input) {
+        int state = cache.initialState();
+        int thrashingFlushes = 0;
+        int lastFlushIndex = 0;
+        for (int i = 0, n = input.length(); i < n; i++) {
+            int flushes = cache.flushes;
+            state = cache.nextState(state, charClasses.classOf(input.charAt(i)));
+            if (state == DenseDfa.DEAD_STATE) {
+                return false;
+            }
+            if (cache.flushes != flushes) {
+                if (i - lastFlushIndex < MIN_CHARS_PER_CACHED_STATE * maxCachedStates) {
+                    thrashingFlushes++;
+                }
+                lastFlushIndex = i;
+                if (thrashingFlushes >= MAX_THRASHING_FLUSHES) {
+                    return simulate(cache.stateSets.get(state).toSet(), input, i + 1);
+                }
+            }
+        }
+        return cache.accepting[state];
+    }
+
+    /**
+     * Returns a new matcher for inputs that arrive in chunks. The matcher keeps a cache of its own, and does not fall
+     * back to stepping through the automaton.
+     */
+    public Matcher matcher() {
+        return new LazyDfaMatcher();
+    }
+
+    private boolean simulate(Set<Integer> currentStates, CharSequence input, int startIndex) {
+        Iterable<Integer> classIds = () -> new Iterator<Integer>() {
+
+            private int index = startIndex;
+
+            @Override
+            public boolean hasNext() {
+                return index < input.length();
+            }
+
+            @Override
+            public Integer next() {
+                return charClasses.classOf(input.charAt(index++));
+            }
+        };
+        return automaton.acceptsFrom(currentStates, classIds);
+    }
+
+    private class LazyDfaMatcher extends Matcher {
+
+        private final StateCache cache =
+                new StateCache(automaton, charClasses, maxCachedStates, classSymbolIds, finalStates);
+        private int state = cache.initialState();
+
+        @Override
+        public Matcher feed(char[] chars, int off, int len) {
+            for (int i = off, end = off + len; i < end && state != DenseDfa.DEAD_STATE; i++) {
+                state = cache.nextState(state, charClasses.classOf(chars[i]));
+            }
+            return this;
+        }
+
+        @Override
+        protected boolean isStateAccepting() {
+            return state != DenseDfa.DEAD_STATE && cache.accepting[state];
+        }
+
+        @Override
+        public boolean isDead() {
+            return state == DenseDfa.DEAD_STATE || cache.stateSets.get(state).isEmpty();
+        }
+
+        @Override
+        protected void resetState() {
+            state = cache.initialState();
+        }
+
+        @Override
+        protected void toDeadState() {
+            state = DenseDfa.DEAD_STATE;
+        }
+    }
+
+    private static class StateCache {
+
+        private static final int UNKNOWN_STATE = -2;
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final Automaton<Integer> automaton;
+        private final CharClasses charClasses;
+        private final int maxCachedStates;
+        private final int[] classSymbolIds;
+        private final boolean[] finalStates;
+        private final StateSetTable stateSets;
+        private final SparseIntSet nextStates;
+
+        /**
+         * Rows of the states built so far, grown as more are built, so that a large limit costs nothing until it is
+         * reached.
+         */
+        private int[] transitions;
+        private boolean[] accepting;
+        private int flushes;
+        private int initialState = UNKNOWN_STATE;
+        private int initialStateFlushes;
+
+        private StateCache(
+                Automaton<Integer> automaton,
+                CharClasses charClasses,
+                int maxCachedStates,
+                int[] classSymbolIds,
+                boolean[] finalStates) {
+            this.automaton = automaton;
+            this.charClasses = charClasses;
+            this.maxCachedStates = maxCachedStates;
+            this.classSymbolIds = classSymbolIds;
+            this.finalStates = finalStates;
+            stateSets = new StateSetTable();
+            nextStates = new SparseIntSet(automaton.getNumStates());
+            int capacity = Math.min(maxCachedStates, INITIAL_CAPACITY);
+            transitions = new int[capacity * charClasses.getNumClasses()];
+            accepting = new boolean[capacity];
+            Arrays.fill(transitions, UNKNOWN_STATE);
+        }
+
+        /**
+         * Returns the initial composite state, which is only built again after a flush.
+         */
+        int initialState() {
+            if (initialState != UNKNOWN_STATE && initialStateFlushes == flushes) {
+                return initialState;
+            }
+            nextStates.clear();
+            EpsilonClosures.addLiveClosure(
+                    nextStates, automaton.getInitialState(), automaton.getEpsilonClosures(), automaton.getLiveStates());
+            initialState = stateFor(nextStates);
+            initialStateFlushes = flushes;
+            return initialState;
+        }
+
+        int nextState(int state, int classId) {
+            int index = state * charClasses.getNumClasses() + classId;
+            int next = transitions[index];
+            if (next != UNKNOWN_STATE) {
+                return next;
+            }
+            step(stateSets.get(state), classId);
+            if (nextStates.isEmpty()) {
+                next = DenseDfa.DEAD_STATE;
+            } else {
+                int flushesBefore = flushes;
+                next = stateFor(nextStates);
+                if (flushes != flushesBefore) {
+                    // The state we came from is gone, so there is no row to record the transition in.
+                    return next;
+                }
+            }
+            transitions[index] = next;
+            return next;
+        }
+
+        /**
+         * Fills nextStates with the states reached from the composite state on the class. States that cannot reach
+         * a final state are dropped, so that the composite state runs empty as soon as no match is possible any more.
+         */
+        private void step(StateSet states, int classId) {
+            CompactTransitions<Integer> edges = automaton.getEdges();
+            int[][] closures = automaton.getEpsilonClosures();
+            boolean[] liveStates = automaton.getLiveStates();
+            int symbolId = classSymbolIds[classId];
+            nextStates.clear();
+            for (int i = 0; i < states.size(); i++) {
+                int s = states.get(i);
+                if (symbolId >= 0) {
+                    for (int e = edges.firstEdge(s, symbolId), end = edges.edgeEnd(s);
+                         e < end && edges.edgeSymbol(e) == symbolId;
+                         e++) {
+                        EpsilonClosures.addLiveClosure(nextStates, edges.edgeTarget(e), closures, liveStates);
+                    }
+                }
+                Set<Integer> rangeTargets = automaton.stateRangeTransitions(s).get(classId);
+                if (rangeTargets != null) {
+                    for (int t : rangeTargets) {
+                        EpsilonClosures.addLiveClosure(nextStates, t, closures, liveStates);
+                    }
+                }
+            }
+        }
+
+        private int stateFor(SparseIntSet states) {
+            if (stateSets.size() == maxCachedStates && stateSets.find(states) < 0) {
+                flush();
+            }
+            int sizeBefore = stateSets.size();
+            int id = stateSets.intern(states);
+            if (stateSets.size() != sizeBefore) {
+                if (id == accepting.length) {
+                    grow();
+                }
+                accepting[id] = stateSets.get(id).containsAny(finalStates);
+            }
+            return id;
+        }
+
+        private void grow() {
+            int capacity = (int) Math.min(maxCachedStates, 2L * accepting.length);
+            int oldLength = transitions.length;
+            transitions = Arrays.copyOf(transitions, capacity * charClasses.getNumClasses());
+            Arrays.fill(transitions, oldLength, transitions.length, UNKNOWN_STATE);
+            accepting = Arrays.copyOf(accepting, capacity);
+        }
+
+        private void flush() {
+            stateSets.clear();
+            Arrays.fill(transitions, UNKNOWN_STATE);
+            flushes++;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package personal.gokul2411s.regular_automata;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Finds the lines of a UTF-8 file that a byte automaton accepts, reading the file through memory-mapped segments
+ * rather than copying it onto the heap.
+ *
+ * Lines end at '\n', which is not part of the line, so a '\r' before it is. Each segment is scanned in one pass that
+ * steps the automaton and restarts it at every line end. A line cut off by the end of a segment is scanned again at
+ * the start of the next one, and a segment that holds no complete line is doubled until it does.
+ */
+public class LineScanner {
+
+    /**
+     * Receives the offsets in the file of the first byte of a line and of the byte just past it.
+     */
+    public interface LineHandler {
+
+        void accept(long start, long end);
+    }
+
+    private static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+    private final Utf8Dfa dfa;
+
+    private final int segmentSize;
+
+    public LineScanner(Utf8Dfa dfa) {
+        this(dfa, DEFAULT_SEGMENT_SIZE);
+    }
+
+    LineScanner(Utf8Dfa dfa, int segmentSize) {
+        Preconditions.checkNotNull(dfa);
+        Preconditions.checkArgument(segmentSize > 0, "Segments must not be empty");
+        this.dfa = dfa;
+        this.segmentSize = segmentSize;
+    }
+
+    public void forEachMatchingLine(Path file, LineHandler handler) throws IOException {
+        DenseDfa byteDfa = dfa.getByteDfa();
+        boolean[] sinks = byteDfa.getAcceptingSinks();
+        int initialState = byteDfa.getInitialState();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            int windowSize = segmentSize;
+            while (position < size) {
+                long windowEnd = Math.min(size, position + windowSize);
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, position, windowEnd - position);
+                int limit = segment.limit();
+                int lineStart = 0;
+                int state = initialState;
+                for (int i = 0; i < limit; i++) {
+                    byte b = segment.get(i);
+                    if (b == '\n') {
+                        if (byteDfa.isAccepting(state)) {
+                            handler.accept(position + lineStart, position + i);
+                        }
+                        lineStart = i + 1;
+                        state = initialState;
+                    } else if (state != DenseDfa.DEAD_STATE && !sinks[state]) {
+                        state = dfa.nextState(state, b);
+                    }
+                }
+
+                if (windowEnd == size) {
+                    if (lineStart < limit && byteDfa.isAccepting(state)) {
+                        handler.accept(position + lineStart, size);
+                    }
+                    return;
+                }
+                if (lineStart > 0) {
+                    position += lineStart;
+                    windowSize = segmentSize;
+                } else if (windowSize == Integer.MAX_VALUE) {
+                    throw new IOException("Line at offset " + position + " is too long to map");
+                } else {
+                    windowSize = (int) Math.min(Integer.MAX_VALUE, 2L * windowSize);
+                }
+            }
+        }
+    }
+}
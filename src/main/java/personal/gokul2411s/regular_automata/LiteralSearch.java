@@ -0,0 +1,62 @@
+package personal.gokul2411s.regular_automata;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Finds a single literal with Boyer-Moore-Horspool. The bad char table is indexed by the low byte of a char, and
+ * chars sharing a low byte get the smallest of their shifts.
+ */
+public class LiteralSearch implements Prefilter {
+
+    private static final int TABLE_SIZE = 256;
+
+    @Getter
+    private final String literal;
+
+    private final int[] shifts;
+
+    public LiteralSearch(String literal) {
+        Preconditions.checkNotNull(literal);
+        Preconditions.checkArgument(!literal.isEmpty(), "Empty literal");
+        this.literal = literal;
+        int length = literal.length();
+        shifts = new int[TABLE_SIZE];
+        Arrays.fill(shifts, length);
+        for (int i = 0; i < length - 1; i++) {
+            shifts[literal.charAt(i) & 0xFF] = length - 1 - i;
+        }
+    }
+
+    /**
+     * Returns the index of the first occurrence of the literal in the input at or after fromIndex, or -1.
+     */
+    public int indexIn(CharSequence input, int fromIndex) {
+        int length = literal.length();
+        int last = length - 1;
+        char lastChar = literal.charAt(last);
+        int i = Math.max(fromIndex, 0);
+        int end = input.length() - length;
+        while (i <= end) {
+            char c = input.charAt(i + last);
+            if (c == lastChar) {
+                int j = last - 1;
+                while (j >= 0 && input.charAt(i + j) == literal.charAt(j)) {
+                    j--;
+                }
+                if (j < 0) {
+                    return i;
+                }
+            }
+            i += shifts[c & 0xFF];
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean mightMatch(CharSequence input) {
+        return indexIn(input, 0) >= 0;
+    }
+}
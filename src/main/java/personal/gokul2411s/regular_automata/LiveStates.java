@@ -0,0 +1,56 @@
+package personal.gokul2411s.regular_automata;
+
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeMap;
+
+import java.util.*;
+
+final class LiveStates {
+
+    /**
+     * Returns whether a final state can be reached from every state, by a search backwards over all transitions from
+     * the final states.
+     */
+    static <Symbol> boolean[] compute(Automaton<Symbol> automaton) {
+        int numStates = automaton.getNumStates();
+        List<List<Integer>> predecessors = new ArrayList<>(numStates);
+        for (int s = 0; s < numStates; s++) {
+            predecessors.add(new ArrayList<>());
+        }
+        CompactTransitions<Symbol> edges = automaton.getEdges();
+        for (int s = 0; s < numStates; s++) {
+            for (int e = edges.edgeStart(s); e < edges.edgeEnd(s); e++) {
+                predecessors.get(edges.edgeTarget(e)).add(s);
+            }
+            for (int e = edges.epsilonStart(s); e < edges.epsilonEnd(s); e++) {
+                predecessors.get(edges.epsilonTarget(e)).add(s);
+            }
+        }
+        for (Map.Entry<Integer, RangeMap<Comparable<?>, Set<Integer>>> entry :
+                automaton.getRangeTransitions().entrySet()) {
+            for (Set<Integer> targets : entry.getValue().asMapOfRanges().values()) {
+                for (int t : targets) {
+                    predecessors.get(t).add(entry.getKey());
+                }
+            }
+        }
+
+        boolean[] live = new boolean[numStates];
+        Deque<Integer> bfsStates = new ArrayDeque<>();
+        for (int s : automaton.getFinalStates()) {
+            live[s] = true;
+            bfsStates.add(s);
+        }
+        while (!bfsStates.isEmpty()) {
+            for (int p : predecessors.get(bfsStates.remove())) {
+                if (!live[p]) {
+                    live[p] = true;
+                    bfsStates.add(p);
+                }
+            }
+        }
+        return live;
+    }
+
+    private LiveStates() { }
+}
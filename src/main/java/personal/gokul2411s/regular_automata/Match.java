@@ -0,0 +1,15 @@
+package personal.gokul2411s.regular_automata;
+
+import lombok.*;
+
+/**
+ * Position of a match in an input: the chars from start inclusive to end exclusive.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class Match {
+
+    private final int start;
+
+    private final int end;
+}
@@ -0,0 +1,143 @@
+package personal.gokul2411s.regular_automata;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Matches an input that arrives in chunks. The state reached so far is kept between calls to feed, so that
+ * {@link #isAccepting()} tells at any point whether the chars fed since the last reset are accepted.
+ *
+ * A matcher is not thread safe. Once it {@link #isDead()} or {@link #isAlwaysAccepting()}, the outcome no longer
+ * depends on what is fed, and feeding returns without looking at its input, except that bytes are still checked to be
+ * valid UTF-8.
+ */
+public abstract class Matcher {
+
+    private static final int BUFFER_SIZE = 1024;
+
+    /**
+     * Created on the first byte input, along with the buffers below. Bytes of a char split across inputs wait in
+     * pendingBytes for the rest of the char.
+     */
+    private CharsetDecoder decoder;
+    private ByteBuffer pendingBytes;
+    private CharBuffer decodedChars;
+
+    public abstract Matcher feed(char[] chars, int off, int len);
+
+    /**
+     * Returns true if the input fed so far is accepted. Bytes of a char that is not complete yet make it unaccepted,
+     * as they are not valid UTF-8 on their own.
+     */
+    public boolean isAccepting() {
+        return (decoder == null || pendingBytes.position() == 0) && isStateAccepting();
+    }
+
+    /**
+     * Returns true if the chars fed so far are accepted.
+     */
+    protected abstract boolean isStateAccepting();
+
+    /**
+     * Returns true if nothing fed from now on can lead to acceptance.
+     */
+    public abstract boolean isDead();
+
+    /**
+     * Returns true if the input stays accepted whatever chars are fed from now on, or whatever valid UTF-8 bytes.
+     * Matchers that cannot tell return false.
+     */
+    public boolean isAlwaysAccepting() {
+        return false;
+    }
+
+    /**
+     * Returns to the state before any input was fed.
+     */
+    public Matcher reset() {
+        resetState();
+        if (decoder != null) {
+            decoder.reset();
+            pendingBytes.clear();
+        }
+        return this;
+    }
+
+    protected abstract void resetState();
+
+    /**
+     * Moves to the state from which nothing is accepted, as after input that is not valid UTF-8.
+     */
+    protected abstract void toDeadState();
+
+    public Matcher feed(char[] chars) {
+        return feed(chars, 0, chars.length);
+    }
+
+    /**
+     * Feeds the remaining chars of the buffer, and moves its position to its limit.
+     */
+    public Matcher feed(CharBuffer chars) {
+        if (chars.hasArray()) {
+            feed(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+            chars.position(chars.limit());
+            return this;
+        }
+        char[] buffer = new char[Math.min(BUFFER_SIZE, chars.remaining())];
+        while (chars.hasRemaining() && !isDecided()) {
+            int len = Math.min(buffer.length, chars.remaining());
+            chars.get(buffer, 0, len);
+            feed(buffer, 0, len);
+        }
+        chars.position(chars.limit());
+        return this;
+    }
+
+    /**
+     * Decodes the remaining bytes of the buffer as UTF-8 and feeds the chars, and moves its position to its limit.
+     * Input that is not valid UTF-8 does not match, as with {@link Regex#matches(ByteBuffer)}: the matcher is dead
+     * until reset.
+     */
+    public Matcher feed(ByteBuffer bytes) {
+        if (decoder == null) {
+            decoder =
+                    StandardCharsets.UTF_8.newDecoder()
+                            .onMalformedInput(CodingErrorAction.REPORT)
+                            .onUnmappableCharacter(CodingErrorAction.REPORT);
+            pendingBytes = ByteBuffer.allocate(BUFFER_SIZE);
+            decodedChars = CharBuffer.allocate(BUFFER_SIZE);
+        }
+        // Always accepting matchers keep decoding, as invalid bytes further on still reject the input.
+        while (bytes.hasRemaining() && !isDead()) {
+            ByteBuffer chunk = bytes.duplicate();
+            chunk.limit(chunk.position() + Math.min(pendingBytes.remaining(), chunk.remaining()));
+            pendingBytes.put(chunk);
+            bytes.position(chunk.position());
+
+            pendingBytes.flip();
+            CoderResult result;
+            do {
+                result = decoder.decode(pendingBytes, decodedChars, false);
+                decodedChars.flip();
+                feed(decodedChars);
+                decodedChars.clear();
+            } while (result.isOverflow());
+            if (result.isError()) {
+                toDeadState();
+                pendingBytes.clear();
+                break;
+            }
+            pendingBytes.compact();
+        }
+        bytes.position(bytes.limit());
+        return this;
+    }
+
+    private boolean isDecided() {
+        return isDead() || isAlwaysAccepting();
+    }
+}
@@ -0,0 +1,294 @@
+package personal.gokul2411s.regular_automata;
+
+import com.google.common.collect.*;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Minimizes a deterministic automaton with Hopcroft's partition refinement, in O(n k log n) for n states and k
+ * letters. The letters are the symbols of the plain transitions and the pieces into which the range transitions of
+ * all states cut each other.
+ *
+ * States that cannot reach a final state are dropped, as are unreachable ones.
+ */
+public class Minimization<Symbol> implements Function<Automaton<Symbol>, Automaton<Symbol>> {
+
+    @Override
+    public Automaton<Symbol> apply(Automaton<Symbol> automaton) {
+
+        if (!automaton.isDeterministic()) {
+            throw new InvalidAutomatonException("Only deterministic automata can be minimized");
+        }
+
+        List<Symbol> symbols = automaton.getEdges().getSymbols();
+        List<Range<Comparable<?>>> pieces = rangePieces(automaton, symbols);
+        int numLetters = symbols.size() + pieces.size();
+
+        // Complete transition function, with an extra sink state standing in for missing transitions.
+        int numStates = automaton.getNumStates() + 1;
+        int sink = numStates - 1;
+        int[] delta = delta(automaton, symbols, pieces, sink);
+
+        // Predecessors of every state on every letter, in compressed rows indexed by letter * numStates + state.
+        int[] predecessorOffsets = new int[numLetters * numStates + 1];
+        for (int s = 0; s < numStates; s++) {
+            for (int a = 0; a < numLetters; a++) {
+                predecessorOffsets[a * numStates + delta[s * numLetters + a] + 1]++;
+            }
+        }
+        for (int i = 1; i < predecessorOffsets.length; i++) {
+            predecessorOffsets[i] += predecessorOffsets[i - 1];
+        }
+        int[] predecessors = new int[numStates * numLetters];
+        int[] fill = Arrays.copyOf(predecessorOffsets, predecessorOffsets.length - 1);
+        for (int s = 0; s < numStates; s++) {
+            for (int a = 0; a < numLetters; a++) {
+                predecessors[fill[a * numStates + delta[s * numLetters + a]]++] = s;
+            }
+        }
+
+        Partition partition = new Partition(numStates);
+        for (int s : automaton.getFinalStates()) {
+            partition.mark(s);
+        }
+        partition.splitMarked();
+
+        // Hopcroft's rule: after a split, only the smaller half needs to become a splitter, unless the block being
+        // split is itself still waiting to be one.
+        Deque<int[]> splitters = new ArrayDeque<>();
+        Set<Long> waiting = new HashSet<>();
+        int smallerInitialBlock =
+                partition.numBlocks == 1 || partition.size(0) <= partition.size(1) ? 0 : 1;
+        for (int a = 0; a < numLetters; a++) {
+            splitters.add(new int[] { smallerInitialBlock, a });
+            waiting.add(key(smallerInitialBlock, a, numLetters));
+        }
+
+        while (!splitters.isEmpty()) {
+            int[] splitter = splitters.remove();
+            int block = splitter[0];
+            int letter = splitter[1];
+            waiting.remove(key(block, letter, numLetters));
+
+            for (int t : partition.members(block)) {
+                for (int i = predecessorOffsets[letter * numStates + t];
+                     i < predecessorOffsets[letter * numStates + t + 1];
+                     i++) {
+                    partition.mark(predecessors[i]);
+                }
+            }
+            for (int[] split : partition.splitMarked()) {
+                int oldBlock = split[0];
+                int newBlock = split[1];
+                int smallerBlock = partition.size(newBlock) <= partition.size(oldBlock) ? newBlock : oldBlock;
+                for (int a = 0; a < numLetters; a++) {
+                    int added = waiting.contains(key(oldBlock, a, numLetters)) ? newBlock : smallerBlock;
+                    if (waiting.add(key(added, a, numLetters))) {
+                        splitters.add(new int[] { added, a });
+                    }
+                }
+            }
+        }
+
+        return quotient(automaton, partition, delta, symbols, pieces, sink);
+    }
+
+    /**
+     * Returns the pieces that the range transitions of all states cut each other into, with the symbols of plain
+     * transitions cut out.
+     */
+    private static <Symbol> List<Range<Comparable<?>>> rangePieces(Automaton<Symbol> automaton, List<Symbol> symbols) {
+        RangeMap<Comparable<?>, Set<Integer>> allRanges = TreeRangeMap.create();
+        for (RangeMap<Comparable<?>, Set<Integer>> ranges : automaton.getRangeTransitions().values()) {
+            for (Range<Comparable<?>> range : ranges.asMapOfRanges().keySet()) {
+                RangeMaps.addTargets(allRanges, range, Collections.emptySet());
+            }
+        }
+        if (allRanges.asMapOfRanges().isEmpty()) {
+            return Collections.emptyList();
+        }
+        for (Symbol symbol : symbols) {
+            allRanges.remove(RangeMaps.singleton((Comparable<?>) symbol));
+        }
+        return new ArrayList<>(allRanges.asMapOfRanges().keySet());
+    }
+
+    private static <Symbol> int[] delta(
+            Automaton<Symbol> automaton, List<Symbol> symbols, List<Range<Comparable<?>>> pieces, int sink) {
+        int numLetters = symbols.size() + pieces.size();
+        int[] delta = new int[(sink + 1) * numLetters];
+        Arrays.fill(delta, sink);
+
+        RangeMap<Comparable<?>, Integer> pieceLetters = TreeRangeMap.create();
+        for (int i = 0; i < pieces.size(); i++) {
+            pieceLetters.put(pieces.get(i), symbols.size() + i);
+        }
+
+        CompactTransitions<Symbol> edges = automaton.getEdges();
+        for (int s = 0; s < sink; s++) {
+            // Letters of plain symbols are their interned ids.
+            for (int e = edges.edgeStart(s); e < edges.edgeEnd(s); e++) {
+                delta[s * numLetters + edges.edgeSymbol(e)] = edges.edgeTarget(e);
+            }
+            RangeMap<Comparable<?>, Set<Integer>> ranges = automaton.stateRangeTransitions(s);
+            for (Map.Entry<Range<Comparable<?>>, Set<Integer>> entry : ranges.asMapOfRanges().entrySet()) {
+                int target = entry.getValue().iterator().next();
+                for (int a : pieceLetters.subRangeMap(entry.getKey()).asMapOfRanges().values()) {
+                    delta[s * numLetters + a] = target;
+                }
+            }
+            if (!ranges.asMapOfRanges().isEmpty()) {
+                for (int a = 0; a < symbols.size(); a++) {
+                    Set<Integer> targets = ranges.get((Comparable<?>) symbols.get(a));
+                    if (targets != null) {
+                        delta[s * numLetters + a] = targets.iterator().next();
+                    }
+                }
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Builds the automaton whose states are the blocks of the partition, numbered in BFS order from the initial state.
+     */
+    private static <Symbol> Automaton<Symbol> quotient(
+            Automaton<Symbol> automaton,
+            Partition partition,
+            int[] delta,
+            List<Symbol> symbols,
+            List<Range<Comparable<?>>> pieces,
+            int sink) {
+        int numLetters = symbols.size() + pieces.size();
+        int deadBlock = partition.blockOf[sink];
+        int initialBlock = partition.blockOf[automaton.getInitialState()];
+
+        Automaton.AutomatonBuilder<Symbol> outputBuilder = Automaton.<Symbol>builder().withInitialState(0);
+        if (initialBlock == deadBlock) {
+            return outputBuilder.withNumStates(1).build();
+        }
+
+        int[] stateIds = new int[partition.numBlocks];
+        Arrays.fill(stateIds, -1);
+        stateIds[initialBlock] = 0;
+        int numStates = 1;
+        Queue<Integer> bfsBlocks = new LinkedList<>();
+        bfsBlocks.add(initialBlock);
+        while (!bfsBlocks.isEmpty()) {
+            int block = bfsBlocks.remove();
+            int stateId = stateIds[block];
+            int representative = partition.members(block)[0];
+            if (automaton.getFinalStates().contains(representative)) {
+                outputBuilder.withFinalState(stateId);
+            }
+
+            RangeMap<Comparable<?>, Integer> rangeTransitions = TreeRangeMap.create();
+            for (int a = 0; a < numLetters; a++) {
+                int targetBlock = partition.blockOf[delta[representative * numLetters + a]];
+                if (targetBlock == deadBlock) {
+                    continue;
+                }
+                if (stateIds[targetBlock] < 0) {
+                    stateIds[targetBlock] = numStates++;
+                    bfsBlocks.add(targetBlock);
+                }
+                if (a < symbols.size()) {
+                    outputBuilder.withTransition(stateId, symbols.get(a), stateIds[targetBlock]);
+                } else {
+                    rangeTransitions.putCoalescing(pieces.get(a - symbols.size()), stateIds[targetBlock]);
+                }
+            }
+            for (Map.Entry<Range<Comparable<?>>, Integer> entry : rangeTransitions.asMapOfRanges().entrySet()) {
+                outputBuilder.withRangeTransition(stateId, entry.getKey(), entry.getValue());
+            }
+        }
+        return outputBuilder.withNumStates(numStates).build();
+    }
+
+    private static long key(int block, int letter, int numLetters) {
+        return (long) block * numLetters + letter;
+    }
+
+    /**
+     * Partition of the states into blocks. Members of a block are contiguous in elements, and the marked members of
+     * a block are at its front.
+     */
+    private static class Partition {
+
+        private final int[] elements;
+        private final int[] locations;
+        private final int[] blockOf;
+        private final int[] blockStarts;
+        private final int[] blockEnds;
+        private final int[] markedCounts;
+        private final List<Integer> touchedBlocks;
+        private int numBlocks;
+
+        private Partition(int numStates) {
+            elements = new int[numStates];
+            locations = new int[numStates];
+            blockOf = new int[numStates];
+            blockStarts = new int[numStates];
+            blockEnds = new int[numStates];
+            markedCounts = new int[numStates];
+            touchedBlocks = new ArrayList<>();
+            for (int s = 0; s < numStates; s++) {
+                elements[s] = s;
+                locations[s] = s;
+            }
+            blockEnds[0] = numStates;
+            numBlocks = 1;
+        }
+
+        int size(int block) {
+            return blockEnds[block] - blockStarts[block];
+        }
+
+        int[] members(int block) {
+            return Arrays.copyOfRange(elements, blockStarts[block], blockEnds[block]);
+        }
+
+        void mark(int state) {
+            int block = blockOf[state];
+            int markedEnd = blockStarts[block] + markedCounts[block];
+            if (locations[state] < markedEnd) {
+                return;
+            }
+            if (markedCounts[block] == 0) {
+                touchedBlocks.add(block);
+            }
+            int other = elements[markedEnd];
+            elements[markedEnd] = state;
+            elements[locations[state]] = other;
+            locations[other] = locations[state];
+            locations[state] = markedEnd;
+            markedCounts[block]++;
+        }
+
+        /**
+         * Moves the marked members of every partially marked block into a new block, and returns the {old, new}
+         * block pairs.
+         */
+        List<int[]> splitMarked() {
+            List<int[]> splits = new ArrayList<>();
+            for (int block : touchedBlocks) {
+                int marked = markedCounts[block];
+                markedCounts[block] = 0;
+                if (marked == size(block)) {
+                    continue;
+                }
+                int newBlock = numBlocks++;
+                blockStarts[newBlock] = blockStarts[block];
+                blockEnds[newBlock] = blockStarts[block] + marked;
+                blockStarts[block] = blockEnds[newBlock];
+                for (int i = blockStarts[newBlock]; i < blockEnds[newBlock]; i++) {
+                    blockOf[elements[i]] = newBlock;
+                }
+                splits.add(new int[] { block, newBlock });
+            }
+            touchedBlocks.clear();
+            return splits;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package personal.gokul2411s.regular_automata;
+
+import com.google.common.collect.ImmutableRangeMap;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeMap;
+
+import java.util.*;
+
+/**
+ * Runs an automaton on primitive ints, Pike VM style. Transitions are read from the compressed rows of the automaton, and
+ * the current and next state sets are sparse sets over the state universe which each thread allocates once and then
+ * reuses for every symbol of every input. Epsilon moves add the precomputed closure of a state in one go.
+ */
+class NfaSimulation<Symbol> {
+
+    private final int initialState;
+
+    private final boolean[] finalStates;
+
+    private final CompactTransitions<Symbol> edges;
+
+    /**
+     * Range transitions of every state, or null for states without any.
+     */
+    private final List<RangeMap<Comparable<?>, int[]>> rangeTargets;
+
+    private final int[][] epsilonClosures;
+
+    private final boolean[] liveStates;
+
+    private final ThreadLocal<Scratch> scratches;
+
+    NfaSimulation(Automaton<Symbol> automaton) {
+        int numStates = automaton.getNumStates();
+        initialState = automaton.getInitialState();
+
+        finalStates = new boolean[numStates];
+        for (int s : automaton.getFinalStates()) {
+            finalStates[s] = true;
+        }
+
+        edges = automaton.getEdges();
+
+        rangeTargets = new ArrayList<>(Collections.nCopies(numStates, null));
+        for (Map.Entry<Integer, RangeMap<Comparable<?>, Set<Integer>>> entry :
+                automaton.getRangeTransitions().entrySet()) {
+            ImmutableRangeMap.Builder<Comparable<?>, int[]> ranges = ImmutableRangeMap.builder();
+            for (Map.Entry<Range<Comparable<?>>, Set<Integer>> range : entry.getValue().asMapOfRanges().entrySet()) {
+                ranges.put(range.getKey(), range.getValue().stream().mapToInt(Integer::intValue).toArray());
+            }
+            rangeTargets.set(entry.getKey(), ranges.build());
+        }
+
+        epsilonClosures = automaton.getEpsilonClosures();
+        liveStates = automaton.getLiveStates();
+
+        scratches = ThreadLocal.withInitial(() -> new Scratch(numStates));
+    }
+
+    boolean accepts(Iterable<Symbol> input) {
+        return acceptsFrom(Collections.singleton(initialState), input);
+    }
+
+    /**
+     * Returns true if the automaton reaches a final state on the input, starting from the given states.
+     */
+    boolean acceptsFrom(Collection<Integer> startStates, Iterable<Symbol> input) {
+        Scratch scratch = scratches.get();
+        SparseIntSet current = scratch.current;
+        SparseIntSet next = scratch.next;
+        current.clear();
+        for (int s : startStates) {
+            addWithClosure(current, s);
+        }
+
+        for (Symbol symbol : input) {
+            if (current.isEmpty()) {
+                return false;
+            }
+            next.clear();
+            int symbolId = edges.symbolId(symbol);
+            for (int i = 0; i < current.size(); i++) {
+                int s = current.get(i);
+                if (symbolId >= 0) {
+                    for (int e = edges.firstEdge(s, symbolId), end = edges.edgeEnd(s);
+                         e < end && edges.edgeSymbol(e) == symbolId;
+                         e++) {
+                        addWithClosure(next, edges.edgeTarget(e));
+                    }
+                }
+                RangeMap<Comparable<?>, int[]> ranges = rangeTargets.get(s);
+                if (ranges != null && symbol instanceof Comparable) {
+                    int[] targets = ranges.get((Comparable<?>) symbol);
+                    if (targets != null) {
+                        for (int t : targets) {
+                            addWithClosure(next, t);
+                        }
+                    }
+                }
+            }
+            SparseIntSet swap = current;
+            current = next;
+            next = swap;
+        }
+
+        for (int i = 0; i < current.size(); i++) {
+            if (finalStates[current.get(i)]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Dead states are left out, so that the set runs empty, and the simulation stops, as soon as no final state can
+     * be reached any more.
+     */
+    private void addWithClosure(SparseIntSet states, int state) {
+        EpsilonClosures.addLiveClosure(states, state, epsilonClosures, liveStates);
+    }
+
+    private static class Scratch {
+
+        private final SparseIntSet current;
+        private final SparseIntSet next;
+
+        private Scratch(int numStates) {
+            current = new SparseIntSet(numStates);
+            next = new SparseIntSet(numStates);
+        }
+    }
+}
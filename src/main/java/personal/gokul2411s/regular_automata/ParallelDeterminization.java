@@ -0,0 +1,225 @@
+package personal.gokul2411s.regular_automata;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeMap;
+import com.google.common.collect.Sets;
+import com.google.common.collect.Table;
+import com.google.common.collect.TreeRangeMap;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Determinizes an automaton like {@link Determinization}, expanding the composite states of each level of the
+ * breadth-first search in parallel on a fork/join pool.
+ *
+ * Expanding a composite state, which means gathering the targets of its members on every symbol and taking their
+ * epsilon closures, is most of the work, and the composite states of one level are independent of each other. The
+ * workers look up the composite states they reach in a concurrent table keyed by sorted state arrays with cached
+ * hashes. Those that are new are numbered after the level is done, in the order of the level, so the output does not
+ * depend on timing.
+ */
+public class ParallelDeterminization<Symbol> implements Function<Automaton<Symbol>, Automaton<Symbol>> {
+
+    /**
+     * Fewest composite states a task expands. Levels smaller than this are expanded on the calling thread.
+     */
+    private static final int MIN_STATES_PER_TASK = 8;
+
+    private final ForkJoinPool pool;
+
+    public ParallelDeterminization() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelDeterminization(ForkJoinPool pool) {
+        Preconditions.checkNotNull(pool);
+        this.pool = pool;
+    }
+
+    @Override
+    public Automaton<Symbol> apply(Automaton<Symbol> automaton) {
+        return apply(automaton, new ArrayList<>());
+    }
+
+    /**
+     * Determinizes the automaton, and fills memberStates with the states of the input automaton that make up each
+     * state of the output, indexed by output state.
+     */
+    Automaton<Symbol> apply(Automaton<Symbol> automaton, List<Set<Integer>> memberStates) {
+        int numStates = automaton.getNumStates();
+        // Computed up front, so that the workers only read them.
+        automaton.getEpsilonClosures();
+        automaton.getLiveStates();
+        ThreadLocal<SparseIntSet> scratches = ThreadLocal.withInitial(() -> new SparseIntSet(numStates));
+
+        StateSet startState = StateSet.of(Determinization.startState(automaton, new SparseIntSet(numStates)));
+        ConcurrentMap<StateSet, Integer> compositeStateIds = new ConcurrentHashMap<>();
+        List<StateSet> compositeStates = new ArrayList<>();
+        compositeStateIds.put(startState, 0);
+        compositeStates.add(startState);
+
+        Table<Integer, Symbol, Set<Integer>> compositeTransitions = HashBasedTable.create();
+        Automaton.AutomatonBuilder<Symbol> outputBuilder = Automaton.builder();
+
+        List<Integer> level = Collections.singletonList(0);
+        while (!level.isEmpty()) {
+            List<Expansion<Symbol>> expansions = new ArrayList<>(Collections.nCopies(level.size(), null));
+            ExpansionTask<Symbol> task =
+                    new ExpansionTask<>(
+                            automaton, scratches, compositeStates, compositeStateIds, level, expansions, 0,
+                            level.size());
+            if (level.size() <= MIN_STATES_PER_TASK) {
+                task.compute();
+            } else {
+                pool.invoke(task);
+            }
+
+            List<Integer> nextLevel = new ArrayList<>();
+            for (int i = 0; i < level.size(); i++) {
+                int compositeStateId = level.get(i);
+                Expansion<Symbol> expansion = expansions.get(i);
+                for (int j = 0; j < expansion.symbols.size(); j++) {
+                    int target = idOf(expansion.symbolTargets.get(j), expansion.symbolTargetIds.get(j),
+                            compositeStateIds, compositeStates, nextLevel);
+                    compositeTransitions.put(
+                            compositeStateId, expansion.symbols.get(j), Sets.newHashSet(target));
+                }
+                RangeMap<Comparable<?>, Integer> coalescedRangeTransitions = TreeRangeMap.create();
+                for (int j = 0; j < expansion.ranges.size(); j++) {
+                    int target = idOf(expansion.rangeTargets.get(j), expansion.rangeTargetIds.get(j),
+                            compositeStateIds, compositeStates, nextLevel);
+                    coalescedRangeTransitions.putCoalescing(expansion.ranges.get(j), target);
+                }
+                for (Map.Entry<Range<Comparable<?>>, Integer> entry :
+                        coalescedRangeTransitions.asMapOfRanges().entrySet()) {
+                    outputBuilder.withRangeTransition(compositeStateId, entry.getKey(), entry.getValue());
+                }
+            }
+            level = nextLevel;
+        }
+
+        return outputBuilder
+                .withNumStates(compositeStates.size())
+                .withInitialState(0)
+                .withFinalStates(Determinization.compositeFinalStates(automaton, compositeStates, memberStates))
+                .withTransitions(compositeTransitions)
+                .build();
+    }
+
+    /**
+     * Returns the id the worker found for the composite state, or else the one it was given earlier in this level,
+     * numbering it if it is new.
+     */
+    private static int idOf(
+            StateSet compositeState,
+            Integer knownId,
+            ConcurrentMap<StateSet, Integer> compositeStateIds,
+            List<StateSet> compositeStates,
+            List<Integer> nextLevel) {
+        if (knownId != null) {
+            return knownId;
+        }
+        Integer id = compositeStateIds.get(compositeState);
+        if (id == null) {
+            id = compositeStates.size();
+            compositeStateIds.put(compositeState, id);
+            compositeStates.add(compositeState);
+            nextLevel.add(id);
+        }
+        return id;
+    }
+
+    /**
+     * Transitions out of one composite state, to the composite states reached, with their ids if they were numbered
+     * in an earlier level, or else null.
+     */
+    private static class Expansion<Symbol> implements Determinization.ExpansionSink<Symbol> {
+
+        private final Map<StateSet, Integer> compositeStateIds;
+        private final List<Symbol> symbols = new ArrayList<>();
+        private final List<StateSet> symbolTargets = new ArrayList<>();
+        private final List<Integer> symbolTargetIds = new ArrayList<>();
+        private final List<Range<Comparable<?>>> ranges = new ArrayList<>();
+        private final List<StateSet> rangeTargets = new ArrayList<>();
+        private final List<Integer> rangeTargetIds = new ArrayList<>();
+
+        private Expansion(Map<StateSet, Integer> compositeStateIds) {
+            this.compositeStateIds = compositeStateIds;
+        }
+
+        @Override
+        public void symbolTransition(Symbol symbol, SparseIntSet targets) {
+            StateSet target = StateSet.of(targets);
+            symbols.add(symbol);
+            symbolTargets.add(target);
+            symbolTargetIds.add(compositeStateIds.get(target));
+        }
+
+        @Override
+        public void rangeTransition(Range<Comparable<?>> range, SparseIntSet targets) {
+            StateSet target = StateSet.of(targets);
+            ranges.add(range);
+            rangeTargets.add(target);
+            rangeTargetIds.add(compositeStateIds.get(target));
+        }
+    }
+
+    private static class ExpansionTask<Symbol> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Automaton<Symbol> automaton;
+        private final ThreadLocal<SparseIntSet> scratches;
+        private final List<StateSet> compositeStates;
+        private final Map<StateSet, Integer> compositeStateIds;
+        private final List<Integer> level;
+        private final List<Expansion<Symbol>> expansions;
+        private final int from;
+        private final int to;
+
+        private ExpansionTask(
+                Automaton<Symbol> automaton,
+                ThreadLocal<SparseIntSet> scratches,
+                List<StateSet> compositeStates,
+                Map<StateSet, Integer> compositeStateIds,
+                List<Integer> level,
+                List<Expansion<Symbol>> expansions,
+                int from,
+                int to) {
+            this.automaton = automaton;
+            this.scratches = scratches;
+            this.compositeStates = compositeStates;
+            this.compositeStateIds = compositeStateIds;
+            this.level = level;
+            this.expansions = expansions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MIN_STATES_PER_TASK) {
+                SparseIntSet targets = scratches.get();
+                for (int i = from; i < to; i++) {
+                    Expansion<Symbol> expansion = new Expansion<>(compositeStateIds);
+                    Determinization.expand(automaton, compositeStates.get(level.get(i)), targets, expansion);
+                    expansions.set(i, expansion);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(
+                    new ExpansionTask<>(
+                            automaton, scratches, compositeStates, compositeStateIds, level, expansions, from, mid),
+                    new ExpansionTask<>(
+                            automaton, scratches, compositeStates, compositeStateIds, level, expansions, mid, to));
+        }
+    }
+}
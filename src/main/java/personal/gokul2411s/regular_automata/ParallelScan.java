@@ -0,0 +1,155 @@
+package personal.gokul2411s.regular_automata;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs a dense automaton over a large input on a fork/join pool. The input is split into chunks, and each chunk is
+ * run from every state at once to get the map from the state it starts in to the state it ends in. Adjacent maps are
+ * composed as the tasks join, and the composed map is applied to the initial state.
+ *
+ * Runs from different states tend to meet after a few symbols, after which they are one run, so running a chunk
+ * from every state costs little more than running it from one.
+ */
+final class ParallelScan {
+
+    /**
+     * Default number of symbols below which a chunk is not split further.
+     */
+    static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+    /**
+     * Steps the automaton from a live state on the symbol at the given index of the input.
+     */
+    interface Stepper {
+
+        int nextState(int state, int index);
+    }
+
+    /**
+     * Returns the state the automaton reaches on the symbols at [from, to), which is {@link DenseDfa#DEAD_STATE} or
+     * an accepting sink if the outcome was decided early.
+     */
+    static int finalState(
+            DenseDfa dfa, Stepper stepper, int from, int to, int chunkSize, ForkJoinPool pool) {
+        if (dfa.getInitialState() == DenseDfa.DEAD_STATE) {
+            return DenseDfa.DEAD_STATE;
+        }
+        if (to - from <= chunkSize) {
+            int state = dfa.getInitialState();
+            boolean[] sinks = dfa.getAcceptingSinks();
+            for (int i = from; i < to && state != DenseDfa.DEAD_STATE && !sinks[state]; i++) {
+                state = stepper.nextState(state, i);
+            }
+            return state;
+        }
+        return pool.invoke(new ChunkTask(dfa, stepper, from, to, chunkSize))[dfa.getInitialState()];
+    }
+
+    private static class ChunkTask extends RecursiveTask<int[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final DenseDfa dfa;
+        private final Stepper stepper;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        private ChunkTask(DenseDfa dfa, Stepper stepper, int from, int to, int chunkSize) {
+            this.dfa = dfa;
+            this.stepper = stepper;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= chunkSize) {
+                return stateMap(dfa, stepper, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(dfa, stepper, from, mid, chunkSize);
+            left.fork();
+            int[] rightMap = new ChunkTask(dfa, stepper, mid, to, chunkSize).compute();
+            int[] leftMap = left.join();
+            for (int s = 0; s < leftMap.length; s++) {
+                if (leftMap[s] != DenseDfa.DEAD_STATE) {
+                    leftMap[s] = rightMap[leftMap[s]];
+                }
+            }
+            return leftMap;
+        }
+    }
+
+    /**
+     * Returns the state reached on the symbols at [from, to) from every state. Only the distinct states of the runs
+     * are stepped: runs that meet are merged, and the map from start states to runs is only rewritten on a merge.
+     * Dead states and accepting sinks are not stepped, as the outcome from them is decided.
+     */
+    private static int[] stateMap(DenseDfa dfa, Stepper stepper, int from, int to) {
+        int numStates = dfa.getNumStates();
+        boolean[] sinks = dfa.getAcceptingSinks();
+
+        int[] runStates = new int[numStates];
+        int[] runOf = new int[numStates];
+        for (int s = 0; s < numStates; s++) {
+            runStates[s] = s;
+            runOf[s] = s;
+        }
+        int numRuns = numStates;
+
+        int[] nextRunStates = new int[numStates];
+        int[] mergedRuns = new int[numStates];
+        int[] runWithState = new int[numStates];
+        int[] runWithStateStamp = new int[numStates];
+        Arrays.fill(runWithStateStamp, -1);
+        boolean decided = false;
+
+        for (int i = from; i < to && !decided; i++) {
+            int numNextRuns = 0;
+            int deadRun = -1;
+            decided = true;
+            for (int r = 0; r < numRuns; r++) {
+                int state = runStates[r];
+                int next = state == DenseDfa.DEAD_STATE || sinks[state] ? state : stepper.nextState(state, i);
+                int run;
+                if (next == DenseDfa.DEAD_STATE) {
+                    if (deadRun < 0) {
+                        deadRun = numNextRuns++;
+                        nextRunStates[deadRun] = next;
+                    }
+                    run = deadRun;
+                } else if (runWithStateStamp[next] == i) {
+                    run = runWithState[next];
+                } else {
+                    run = numNextRuns++;
+                    nextRunStates[run] = next;
+                    runWithState[next] = run;
+                    runWithStateStamp[next] = i;
+                    decided &= sinks[next];
+                }
+                mergedRuns[r] = run;
+            }
+            if (numNextRuns < numRuns) {
+                for (int s = 0; s < numStates; s++) {
+                    runOf[s] = mergedRuns[runOf[s]];
+                }
+            }
+            int[] swap = runStates;
+            runStates = nextRunStates;
+            nextRunStates = swap;
+            numRuns = numNextRuns;
+        }
+
+        int[] map = new int[numStates];
+        for (int s = 0; s < numStates; s++) {
+            map[s] = runStates[runOf[s]];
+        }
+        return map;
+    }
+
+    private ParallelScan() { }
+}
@@ -0,0 +1,27 @@
+package personal.gokul2411s.regular_automata;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Collection;
+
+/**
+ * Cheap test that rejects inputs which cannot match, before they reach an automaton.
+ */
+public interface Prefilter {
+
+    /**
+     * Returns false only if the input cannot match.
+     */
+    boolean mightMatch(CharSequence input);
+
+    /**
+     * Returns a prefilter that passes the inputs containing at least one of the literals.
+     */
+    static Prefilter containingAnyOf(Collection<String> literals) {
+        Preconditions.checkArgument(!literals.isEmpty(), "No literals");
+        if (literals.size() == 1) {
+            return new LiteralSearch(literals.iterator().next());
+        }
+        return new AhoCorasick(literals);
+    }
+}
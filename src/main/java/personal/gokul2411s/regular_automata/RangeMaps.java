@@ -0,0 +1,89 @@
+package personal.gokul2411s.regular_automata;
+
+import com.google.common.collect.*;
+
+import java.util.*;
+
+final class RangeMaps {
+
+    /**
+     * Adds the targets to every part of the range, splitting the ranges already in the map where they overlap it,
+     * so that the map stays a set of disjoint ranges each labelled with all of its targets.
+     */
+    static <C extends Comparable<?>> void addTargets(
+            RangeMap<C, Set<Integer>> map, Range<C> range, Collection<Integer> targets) {
+        RangeSet<C> uncovered = TreeRangeSet.create();
+        uncovered.add(range);
+        Map<Range<C>, Set<Integer>> overlapping = new HashMap<>(map.subRangeMap(range).asMapOfRanges());
+        for (Map.Entry<Range<C>, Set<Integer>> entry : overlapping.entrySet()) {
+            uncovered.remove(entry.getKey());
+            Set<Integer> merged = new HashSet<>(entry.getValue());
+            merged.addAll(targets);
+            map.put(entry.getKey(), merged);
+        }
+        for (Range<C> gap : uncovered.asRanges()) {
+            map.put(gap, new HashSet<>(targets));
+        }
+    }
+
+    /**
+     * Returns the range in closed-open form if its endpoints are chars, ints or longs, so that splitting ranges never
+     * leaves pieces such as the open range ('a', 'b'), which holds no symbol but would still count as a piece.
+     */
+    @SuppressWarnings("unchecked")
+    static Range<Comparable<?>> canonical(Range<Comparable<?>> range) {
+        Comparable<?> endpoint =
+                range.hasLowerBound() ? range.lowerEndpoint() : range.hasUpperBound() ? range.upperEndpoint() : null;
+        DiscreteDomain<?> domain = null;
+        if (endpoint instanceof Character) {
+            domain = CharDomain.INSTANCE;
+        } else if (endpoint instanceof Integer) {
+            domain = DiscreteDomain.integers();
+        } else if (endpoint instanceof Long) {
+            domain = DiscreteDomain.longs();
+        }
+        if (domain == null) {
+            return range;
+        }
+        return ((Range) range).canonical(domain);
+    }
+
+    /**
+     * Returns the range holding just the given symbol, in canonical form.
+     */
+    static Range<Comparable<?>> singleton(Comparable<?> symbol) {
+        return canonical(Range.singleton(symbol));
+    }
+
+    private static class CharDomain extends DiscreteDomain<Character> {
+
+        private static final CharDomain INSTANCE = new CharDomain();
+
+        @Override
+        public Character next(Character value) {
+            return value == Character.MAX_VALUE ? null : (char) (value + 1);
+        }
+
+        @Override
+        public Character previous(Character value) {
+            return value == Character.MIN_VALUE ? null : (char) (value - 1);
+        }
+
+        @Override
+        public long distance(Character start, Character end) {
+            return (long) end - start;
+        }
+
+        @Override
+        public Character minValue() {
+            return Character.MIN_VALUE;
+        }
+
+        @Override
+        public Character maxValue() {
+            return Character.MAX_VALUE;
+        }
+    }
+
+    private RangeMaps() { }
+}
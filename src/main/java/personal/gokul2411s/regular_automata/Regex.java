@@ -3,23 +3,191 @@ package personal.gokul2411s.regular_automata;
 import com.google.common.base.Preconditions;
 import lombok.*;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
 
 import static personal.gokul2411s.regular_automata.AutomatonFactory.*;
 
 @Value
-@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+@EqualsAndHashCode(exclude = { "eagerDfa", "search", "utf8Dfa" })
+@ToString(exclude = { "eagerDfa", "search", "utf8Dfa" })
 public class Regex {
 
     @NonNull
     private final String pattern;
 
+    /**
+     * Automaton over the char classes of the pattern. It is deterministic unless the regex was built with lazy
+     * determinization.
+     */
     @NonNull
-    private final Automaton<Character> compiledAutomaton;
+    private final Automaton<Integer> compiledAutomaton;
 
-    public boolean matches(String input) {
-        return compiledAutomaton.accepts(input.chars().mapToObj(c -> (char)c).toArray(Character[]::new));
+    /**
+     * Null if the regex was built with lazy determinization.
+     */
+    private final DenseDfa dfa;
+
+    /**
+     * Null unless the regex was built with lazy determinization.
+     */
+    private final LazyDfa lazyDfa;
+
+    /**
+     * Null if the pattern requires no literal, or if the automaton rejects most inputs at their first char anyway.
+     */
+    private final Prefilter prefilter;
+
+    @NonNull
+    @Getter(AccessLevel.NONE)
+    private final CharClasses charClasses;
+
+    /**
+     * The dfa, or if the regex was built with lazy determinization, a dense automaton determinized up front on first
+     * use, for the operations that need every state at hand.
+     */
+    @Getter(value = AccessLevel.PRIVATE, lazy = true)
+    private final DenseDfa eagerDfa =
+            dfa != null ? dfa : compiled(minimized(determinized(compiledAutomaton)), charClasses);
+
+    /**
+     * Automata for searching inside inputs, built on first use.
+     */
+    @Getter(value = AccessLevel.PRIVATE, lazy = true)
+    private final DfaSearch search = new DfaSearch(compiledAutomaton, charClasses, getEagerDfa());
+
+    /**
+     * Automaton over the bytes of UTF-8 encoded input, built on first use.
+     */
+    @Getter(value = AccessLevel.PRIVATE, lazy = true)
+    private final Utf8Dfa utf8Dfa = new Utf8Compilation().apply(getEagerDfa());
+
+    public boolean matches(CharSequence input) {
+        if (prefilter != null && !prefilter.mightMatch(input)) {
+            return false;
+        }
+        return dfa != null ? dfa.matches(input) : lazyDfa.matches(input);
+    }
+
+    /**
+     * Returns the indices of the inputs that the regex matches whole, matching runs of inputs on the common fork/join
+     * pool in parallel.
+     */
+    public BitSet matchAll(List<? extends CharSequence> inputs) {
+        Preconditions.checkNotNull(inputs);
+        return BatchMatching.matchAll(inputs, this::threadMatcher, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns a test for whole-input matches, for filtering streams of inputs. It can be shared between threads, as in
+     * parallel streams.
+     */
+    public Predicate<CharSequence> asPredicate() {
+        return this::matches;
+    }
+
+    /**
+     * Returns a test for whole-input matches that must only be used on the calling thread. With lazy determinization,
+     * it is bound to the cache of the thread.
+     */
+    private Predicate<CharSequence> threadMatcher() {
+        Predicate<CharSequence> automatonMatches = dfa != null ? dfa::matches : lazyDfa.threadMatcher();
+        if (prefilter == null) {
+            return automatonMatches;
+        }
+        return input -> prefilter.mightMatch(input) && automatonMatches.test(input);
+    }
+
+    /**
+     * Returns true if the len bytes from off are the UTF-8 encoding of an input the regex matches. Invalid UTF-8 does
+     * not match.
+     */
+    public boolean matches(byte[] input, int off, int len) {
+        Preconditions.checkPositionIndexes(off, off + len, input.length);
+        return getUtf8Dfa().matches(input, off, len);
+    }
+
+    /**
+     * Returns true if the remaining bytes of the buffer are the UTF-8 encoding of an input the regex matches. The
+     * bytes are left unconsumed.
+     */
+    public boolean matches(ByteBuffer input) {
+        return getUtf8Dfa().matches(input);
+    }
+
+    /**
+     * Returns true if the regex matches the whole input, running chunks of long inputs on the common fork/join pool
+     * in parallel. See {@link ParallelScan}.
+     */
+    public boolean matchesInParallel(CharSequence input) {
+        if (prefilter != null && !prefilter.mightMatch(input)) {
+            return false;
+        }
+        return getEagerDfa().matchesInParallel(input, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns true if the remaining bytes of the buffer, which may be memory-mapped, are the UTF-8 encoding of an input
+     * the regex matches, running chunks of long inputs on the common fork/join pool in parallel. The bytes are left
+     * unconsumed.
+     */
+    public boolean matchesInParallel(ByteBuffer input) {
+        return getUtf8Dfa().matchesInParallel(input, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Passes the offsets of every line of the UTF-8 file that the regex matches to the handler, in order. The file is
+     * memory-mapped rather than read. See {@link LineScanner}.
+     */
+    public void forEachMatchingLine(Path file, LineScanner.LineHandler handler) throws IOException {
+        new LineScanner(getUtf8Dfa()).forEachMatchingLine(file, handler);
+    }
+
+    /**
+     * Returns a new matcher for inputs that arrive in chunks, such as records read from a file or a socket. Unlike
+     * {@link #matches(CharSequence)}, it does not prefilter.
+     */
+    public Matcher matcher() {
+        return dfa != null ? dfa.matcher() : lazyDfa.matcher();
+    }
+
+    /**
+     * Returns the leftmost-longest match inside the input, or null.
+     */
+    public Match find(CharSequence input) {
+        return find(input, 0);
+    }
+
+    /**
+     * Returns the leftmost-longest match inside the input that starts at or after from, or null.
+     */
+    public Match find(CharSequence input, int from) {
+        Preconditions.checkPositionIndex(from, input.length());
+        if (from == 0 && prefilter != null && !prefilter.mightMatch(input)) {
+            return null;
+        }
+        return getSearch().find(input, from);
+    }
+
+    /**
+     * Returns the successive non-overlapping matches inside the input. Each search resumes where the previous match
+     * ended, or one char further if it was empty.
+     */
+    public List<Match> findAll(CharSequence input) {
+        if (prefilter != null && !prefilter.mightMatch(input)) {
+            return Collections.emptyList();
+        }
+        return getSearch().findAll(input);
     }
 
     public static RegexBuilder builder() {
@@ -29,6 +197,10 @@ public class Regex {
     public static class RegexBuilder {
 
         private String pattern;
+        private int maxCachedStates;
+        private boolean minimization = true;
+        private boolean glushkovConstruction;
+        private boolean prefiltering = true;
 
         public RegexBuilder withPattern(String pattern) {
             Preconditions.checkNotNull(pattern);
@@ -36,144 +208,157 @@ public class Regex {
             return this;
         }
 
-        public Regex build() {
-            return new Regex(pattern, determinized(automaton(0, pattern.length())));
+        /**
+         * Skips the up-front determinization, which can blow up exponentially for some patterns, and instead
+         * determinizes while matching, keeping at most maxCachedStates composite states per thread.
+         */
+        public RegexBuilder withLazyDeterminization(int maxCachedStates) {
+            Preconditions.checkArgument(maxCachedStates >= 2, "Need room for at least two cached states");
+            this.maxCachedStates = maxCachedStates;
+            return this;
         }
 
-        private Automaton<Character> automaton(
-                int startIndex /* inclusive */,
-                int endIndex /* exclusive */) {
-            int index = startIndex;
-            List<Automaton<Character>> concatenatedAutomata = new ArrayList<>();
-            List<Automaton<Character>> currentAutomata = new ArrayList<>();
-            boolean currentAutomatonQuantifiable = true;
-            while (index < endIndex) {
-                char charAtIndex = pattern.charAt(index);
-                if (isGroupEnding(charAtIndex)) {
-                    throw new InvalidRegexException("Stray closing group at index " + index);
-                } else if (isGroupBeginning(charAtIndex)) {
-                    Pair<Automaton<Character>, Integer> out = automatonForGroup(index);
-                    currentAutomata.add(out.getFirst());
-                    currentAutomatonQuantifiable = true;
-                    index = out.getSecond();
-                } else if (isUnionOperator(charAtIndex)) {
-                    if (currentAutomata.isEmpty()) {
-                        concatenatedAutomata.add(automatonAcceptingEmptyInput());
-                    } else {
-                        concatenatedAutomata.add(concatenated(currentAutomata));
-                        currentAutomata.clear();
-                    }
-                    index++;
-                } else if (isKleeneStarOperator(charAtIndex)) {
-                    if (currentAutomata.isEmpty()) {
-                        throw new InvalidRegexException("No expression preceeds Kleene star at index " + index);
-                    }
-                    if (!currentAutomatonQuantifiable) {
-                        throw new InvalidRegexException(
-                                "Non-quantifiable expression preceeding Kleene star at index " + index);
-                    }
-                    currentAutomatonQuantifiable = false;
-                    currentAutomata.add(kleeneStarred(currentAutomata.remove(currentAutomata.size() - 1)));
-                    index++;
-                } else if (isCatchAllOperator(charAtIndex)) {
-                    currentAutomata.add(automatonAcceptingAllChars());
-                    currentAutomatonQuantifiable = true;
-                    index++;
-                } else {
-                    currentAutomata.add(automatonAcceptingSingleSymbol(charAtIndex));
-                    currentAutomatonQuantifiable = true;
-                    index++;
-                }
-            }
-
-            if (currentAutomata.isEmpty()) {
-                concatenatedAutomata.add(automatonAcceptingEmptyInput());
-            } else {
-                concatenatedAutomata.add(concatenated(currentAutomata));
-                currentAutomata.clear();
-            }
+        /**
+         * Whether to minimize the determinized automaton, which is the default. Has no effect with lazy
+         * determinization.
+         */
+        public RegexBuilder withMinimization(boolean minimization) {
+            this.minimization = minimization;
+            return this;
+        }
 
-            if (concatenatedAutomata.isEmpty()) {
-                return automatonAcceptingEmptyInput();
-            } else {
-                return unioned(concatenatedAutomata);
-            }
+        /**
+         * Whether to build the position (Glushkov) automaton of the pattern instead of composing Thompson fragments.
+         * The position automaton has one state per literal or catch-all plus one, no epsilon transitions, and is
+         * built without copying intermediate automata.
+         */
+        public RegexBuilder withGlushkovConstruction(boolean glushkovConstruction) {
+            this.glushkovConstruction = glushkovConstruction;
+            return this;
         }
 
-        private static Automaton<Character> concatenated(List<Automaton<Character>> automata) {
-            Automaton<Character> out = automata.get(0);
-            boolean first = true;
-            for (Automaton<Character> automaton : automata) {
-                if (first) {
-                    first = false;
-                } else {
-                    out = AutomatonFactory.concatenated(out, automaton);
-                }
-            }
-            return out;
+        /**
+         * Whether to reject inputs that lack the literals every match contains before running the automaton, which
+         * is the default.
+         */
+        public RegexBuilder withPrefiltering(boolean prefiltering) {
+            this.prefiltering = prefiltering;
+            return this;
         }
 
-        private static Automaton<Character> unioned(List<Automaton<Character>> automata) {
-            Automaton<Character> out = automata.get(0);
-            boolean first = true;
-            for (Automaton<Character> automaton : automata) {
-                if (first) {
-                    first = false;
-                } else {
-                    out = AutomatonFactory.unioned(out, automaton);
-                }
-            }
-            return out;
+        /**
+         * Returns the pattern and every option that affects the built regex, as a value.
+         */
+        Options options() {
+            return new Options(pattern, maxCachedStates, minimization, glushkovConstruction, prefiltering);
         }
 
-        private Pair<Automaton<Character>, Integer> automatonForGroup(int groupStartIndex) {
-            int index = groupStartIndex + 1;
-            boolean foundClose = false;
-            while (index < pattern.length()) {
-                char charAtIndex = pattern.charAt(index);
-                if (isGroupBeginning(charAtIndex)) {
-                    throw new InvalidRegexException("Stray opening group at index " + index);
-                }
-                index++;
-                if (isGroupEnding(charAtIndex)) {
-                    foundClose = true;
-                    break;
-                }
+        public Regex build() {
+            RegexNode syntaxTree = new RegexParser().apply(pattern);
+            CharClasses charClasses = charClasses(Collections.singletonList(syntaxTree));
+            Prefilter prefilter = prefiltering ? prefilter(Collections.singletonList(syntaxTree)) : null;
+            Automaton<Integer> automaton =
+                    glushkovConstruction
+                            ? new GlushkovConstruction(charClasses).apply(syntaxTree)
+                            : new ThompsonConstruction(charClasses).apply(syntaxTree);
+            if (maxCachedStates > 0) {
+                // Matching steps through this automaton directly, so spare it the epsilon transitions.
+                Automaton<Integer> epsilonFreeAutomaton =
+                        automaton.getEdges().numEpsilonTransitions() == 0 ? automaton : epsilonFree(automaton);
+                return new Regex(
+                        pattern,
+                        epsilonFreeAutomaton,
+                        null,
+                        new LazyDfa(epsilonFreeAutomaton, charClasses, maxCachedStates),
+                        prefilter,
+                        charClasses);
             }
-            if (!foundClose) {
-                throw new InvalidRegexException("No matching group close for index " + groupStartIndex);
+            Automaton<Integer> dfa = determinized(automaton);
+            if (minimization) {
+                dfa = minimized(dfa);
             }
-            return new Pair<>(automaton(groupStartIndex + 1, index - 1), index);
+            return new Regex(pattern, dfa, compiled(dfa, charClasses), null, prefilter, charClasses);
         }
 
-        private static boolean isUnionOperator(char c) {
-            return c == '|';
-        }
+        @Value
+        static class Options {
 
-        private static boolean isKleeneStarOperator(char c) {
-            return c == '*';
+            private final String pattern;
+            private final int maxCachedStates;
+            private final boolean minimization;
+            private final boolean glushkovConstruction;
+            private final boolean prefiltering;
         }
 
-        private static boolean isGroupBeginning(char c) {
-            return c == '(';
+        /**
+         * Returns a prefilter passing the inputs that contain a literal required by each of the patterns, or null if
+         * some pattern requires none, or if every pattern starts with a literal char.
+         */
+        static Prefilter prefilter(Collection<RegexNode> syntaxTrees) {
+            if (syntaxTrees.stream().allMatch(RequiredLiterals::startsWithLiteral)) {
+                return null;
+            }
+            Set<String> literals = new HashSet<>();
+            RequiredLiterals requiredLiterals = new RequiredLiterals();
+            for (RegexNode syntaxTree : syntaxTrees) {
+                Set<String> required = requiredLiterals.apply(syntaxTree);
+                if (required.isEmpty()) {
+                    return null;
+                }
+                literals.addAll(required);
+            }
+            return Prefilter.containingAnyOf(literals);
         }
 
-        private static boolean isGroupEnding(char c) {
-            return c == ')';
-        }
+        /**
+         * Every literal char of the patterns gets a class of its own, and all other chars share one class. The
+         * automata are built over these classes, so a catch-all costs one transition per class rather than one per
+         * char.
+         */
+        static CharClasses charClasses(Collection<RegexNode> syntaxTrees) {
+            Set<Character> literals = new HashSet<>();
+            RegexNode.Visitor<Void> literalCollector = new RegexNode.Visitor<Void>() {
 
-        private static boolean isCatchAllOperator(char c) {
-            return c == '.';
-        }
+                @Override
+                public Void visitEmpty(RegexNode.Empty empty) {
+                    return null;
+                }
 
-        @Value
-        private static class Pair<A, B> {
+                @Override
+                public Void visitLiteral(RegexNode.Literal literal) {
+                    literals.add(literal.getValue());
+                    return null;
+                }
 
-            @NonNull
-            private final A first;
+                @Override
+                public Void visitAnyChar(RegexNode.AnyChar anyChar) {
+                    return null;
+                }
 
-            @NonNull
-            private final B second;
+                @Override
+                public Void visitSequence(RegexNode.Sequence sequence) {
+                    sequence.getNodes().forEach(node -> node.accept(this));
+                    return null;
+                }
+
+                @Override
+                public Void visitAlternation(RegexNode.Alternation alternation) {
+                    alternation.getNodes().forEach(node -> node.accept(this));
+                    return null;
+                }
+
+                @Override
+                public Void visitRepetition(RegexNode.Repetition repetition) {
+                    return repetition.getNode().accept(this);
+                }
+            };
+            syntaxTrees.forEach(syntaxTree -> syntaxTree.accept(literalCollector));
+
+            CharClasses.CharClassesBuilder classesBuilder = CharClasses.builder();
+            for (char literal : literals) {
+                classesBuilder.withDistinguishedChars(Collections.singletonList(literal));
+            }
+            return classesBuilder.build();
         }
     }
 }
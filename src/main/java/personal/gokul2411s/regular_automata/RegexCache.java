@@ -0,0 +1,133 @@
+package personal.gokul2411s.regular_automata;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.RangeMap;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Thread-safe cache of compiled regexes, keyed by pattern and build options, and bounded by an estimate of the memory
+ * their automata take. Least recently used regexes are evicted first.
+ *
+ * A regex missing from the cache is built by the first thread that asks for it, and other threads asking for the
+ * same regex meanwhile wait for it rather than building it too.
+ */
+public class RegexCache {
+
+    private static final int BYTES_PER_OBJECT = 16;
+    private static final int BYTES_PER_STATE = 64;
+    private static final int BYTES_PER_EDGE = 8;
+    private static final int BYTES_PER_RANGE_TRANSITION = 96;
+
+    private final Cache<Regex.RegexBuilder.Options, Regex> cache;
+
+    /**
+     * Takes the largest total estimated size in bytes of the cached regexes.
+     */
+    public RegexCache(long maxBytes) {
+        Preconditions.checkArgument(maxBytes > 0, "Cache size must be positive");
+        // A single segment, as each segment would otherwise get an equal share of the budget, and regexes larger
+        // than a share would never stay cached.
+        cache = CacheBuilder.newBuilder()
+                .concurrencyLevel(1)
+                .maximumWeight(maxBytes)
+                .weigher((Regex.RegexBuilder.Options options, Regex regex) ->
+                        (int) Math.min(Integer.MAX_VALUE, estimatedBytes(regex)))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the regex of the pattern with the default options.
+     */
+    public Regex get(String pattern) {
+        return get(Regex.builder().withPattern(pattern));
+    }
+
+    /**
+     * Returns the regex the builder builds, building it only if no regex with the same pattern and options is cached.
+     *
+     * @throws InvalidRegexException if the pattern is invalid. Invalid patterns are not cached.
+     */
+    public Regex get(Regex.RegexBuilder builder) {
+        Preconditions.checkNotNull(builder);
+        Regex.RegexBuilder.Options options = builder.options();
+        Preconditions.checkNotNull(options.getPattern(), "No pattern");
+        try {
+            return cache.get(options, builder::build);
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Returns the hits, misses, evictions and build times so far.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Returns the number of cached regexes.
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Returns a rough estimate of the bytes taken by the automata of the regex when it was built. Automata built on
+     * first use, for searching or for bytes, are not counted.
+     */
+    static long estimatedBytes(Regex regex) {
+        long bytes = BYTES_PER_OBJECT + 2L * regex.getPattern().length();
+        bytes += estimatedBytes(regex.getCompiledAutomaton());
+        DenseDfa dfa = regex.getDfa();
+        if (dfa != null) {
+            bytes += estimatedBytes(dfa.getCharClasses())
+                    + 4L * dfa.getTransitions().length
+                    + 2L * dfa.getNumStates();
+        } else {
+            LazyDfa lazyDfa = regex.getLazyDfa();
+            // One full state cache, as the number of threads that will match is unknown.
+            bytes += estimatedBytes(lazyDfa.getCharClasses())
+                    + (4L * lazyDfa.getCharClasses().getNumClasses() + BYTES_PER_STATE)
+                            * lazyDfa.getMaxCachedStates();
+        }
+        return bytes;
+    }
+
+    private static long estimatedBytes(Automaton<Integer> automaton) {
+        long rangeTransitions = 0;
+        for (RangeMap<Comparable<?>, Set<Integer>> ranges : automaton.getRangeTransitions().values()) {
+            rangeTransitions += ranges.asMapOfRanges().size();
+        }
+        CompactTransitions<Integer> edges = automaton.getEdges();
+        return (long) BYTES_PER_STATE * automaton.getNumStates()
+                + (long) BYTES_PER_EDGE * (edges.numEdges() + edges.numEpsilonTransitions())
+                + BYTES_PER_RANGE_TRANSITION * rangeTransitions;
+    }
+
+    private static long estimatedBytes(CharClasses charClasses) {
+        return BYTES_PER_OBJECT
+                + 2L * charClasses.getIntervalStarts().length
+                + 4L * charClasses.getIntervalClasses().length
+                + 4L * charClasses.getBlockOffsets().length
+                + 2L * charClasses.getClassTable().length;
+    }
+}
@@ -0,0 +1,106 @@
+package personal.gokul2411s.regular_automata;
+
+import lombok.NonNull;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Node of the syntax tree of a regex pattern, as produced by {@link RegexParser}.
+ */
+public interface RegexNode {
+
+    <R> R accept(Visitor<R> visitor);
+
+    interface Visitor<R> {
+
+        R visitEmpty(Empty empty);
+
+        R visitLiteral(Literal literal);
+
+        R visitAnyChar(AnyChar anyChar);
+
+        R visitSequence(Sequence sequence);
+
+        R visitAlternation(Alternation alternation);
+
+        R visitRepetition(Repetition repetition);
+    }
+
+    /**
+     * Matches the empty input only.
+     */
+    @Value
+    class Empty implements RegexNode {
+
+        @Override
+        public <R> R accept(Visitor<R> visitor) {
+            return visitor.visitEmpty(this);
+        }
+    }
+
+    @Value
+    class Literal implements RegexNode {
+
+        private final char value;
+
+        @Override
+        public <R> R accept(Visitor<R> visitor) {
+            return visitor.visitLiteral(this);
+        }
+    }
+
+    @Value
+    class AnyChar implements RegexNode {
+
+        @Override
+        public <R> R accept(Visitor<R> visitor) {
+            return visitor.visitAnyChar(this);
+        }
+    }
+
+    /**
+     * Concatenation of at least two nodes.
+     */
+    @Value
+    class Sequence implements RegexNode {
+
+        @NonNull
+        private final List<RegexNode> nodes;
+
+        @Override
+        public <R> R accept(Visitor<R> visitor) {
+            return visitor.visitSequence(this);
+        }
+    }
+
+    /**
+     * Union of at least two nodes.
+     */
+    @Value
+    class Alternation implements RegexNode {
+
+        @NonNull
+        private final List<RegexNode> nodes;
+
+        @Override
+        public <R> R accept(Visitor<R> visitor) {
+            return visitor.visitAlternation(this);
+        }
+    }
+
+    /**
+     * Kleene star of a node.
+     */
+    @Value
+    class Repetition implements RegexNode {
+
+        @NonNull
+        private final RegexNode node;
+
+        @Override
+        public <R> R accept(Visitor<R> visitor) {
+            return visitor.visitRepetition(this);
+        }
+    }
+}
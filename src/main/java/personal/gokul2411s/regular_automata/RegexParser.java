@@ -0,0 +1,112 @@
+package personal.gokul2411s.regular_automata;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Parses a regex pattern into its syntax tree. Concatenation binds tighter than union, and Kleene star tighter than
+ * concatenation. Groups cannot be nested.
+ */
+public class RegexParser implements Function<String, RegexNode> {
+
+    @Override
+    public RegexNode apply(String pattern) {
+        Preconditions.checkNotNull(pattern);
+        return node(pattern, 0, pattern.length());
+    }
+
+    private static RegexNode node(
+            String pattern,
+            int startIndex /* inclusive */,
+            int endIndex /* exclusive */) {
+        int index = startIndex;
+        List<RegexNode> alternatives = new ArrayList<>();
+        List<RegexNode> currentNodes = new ArrayList<>();
+        boolean currentNodeQuantifiable = true;
+        while (index < endIndex) {
+            char charAtIndex = pattern.charAt(index);
+            if (isGroupEnding(charAtIndex)) {
+                throw new InvalidRegexException("Stray closing group at index " + index);
+            } else if (isGroupBeginning(charAtIndex)) {
+                int groupEndIndex = groupEndIndex(pattern, index);
+                currentNodes.add(node(pattern, index + 1, groupEndIndex - 1));
+                currentNodeQuantifiable = true;
+                index = groupEndIndex;
+            } else if (isUnionOperator(charAtIndex)) {
+                alternatives.add(sequence(currentNodes));
+                currentNodes = new ArrayList<>();
+                index++;
+            } else if (isKleeneStarOperator(charAtIndex)) {
+                if (currentNodes.isEmpty()) {
+                    throw new InvalidRegexException("No expression preceeds Kleene star at index " + index);
+                }
+                if (!currentNodeQuantifiable) {
+                    throw new InvalidRegexException(
+                            "Non-quantifiable expression preceeding Kleene star at index " + index);
+                }
+                currentNodeQuantifiable = false;
+                currentNodes.add(new RegexNode.Repetition(currentNodes.remove(currentNodes.size() - 1)));
+                index++;
+            } else if (isCatchAllOperator(charAtIndex)) {
+                currentNodes.add(new RegexNode.AnyChar());
+                currentNodeQuantifiable = true;
+                index++;
+            } else {
+                currentNodes.add(new RegexNode.Literal(charAtIndex));
+                currentNodeQuantifiable = true;
+                index++;
+            }
+        }
+        alternatives.add(sequence(currentNodes));
+
+        return alternatives.size() == 1 ? alternatives.get(0) : new RegexNode.Alternation(alternatives);
+    }
+
+    private static RegexNode sequence(List<RegexNode> nodes) {
+        if (nodes.isEmpty()) {
+            return new RegexNode.Empty();
+        }
+        return nodes.size() == 1 ? nodes.get(0) : new RegexNode.Sequence(nodes);
+    }
+
+    /**
+     * Returns the index just past the closing of the group that opens at the given index.
+     */
+    private static int groupEndIndex(String pattern, int groupStartIndex) {
+        int index = groupStartIndex + 1;
+        while (index < pattern.length()) {
+            char charAtIndex = pattern.charAt(index);
+            if (isGroupBeginning(charAtIndex)) {
+                throw new InvalidRegexException("Stray opening group at index " + index);
+            }
+            index++;
+            if (isGroupEnding(charAtIndex)) {
+                return index;
+            }
+        }
+        throw new InvalidRegexException("No matching group close for index " + groupStartIndex);
+    }
+
+    private static boolean isUnionOperator(char c) {
+        return c == '|';
+    }
+
+    private static boolean isKleeneStarOperator(char c) {
+        return c == '*';
+    }
+
+    private static boolean isGroupBeginning(char c) {
+        return c == '(';
+    }
+
+    private static boolean isGroupEnding(char c) {
+        return c == ')';
+    }
+
+    private static boolean isCatchAllOperator(char c) {
+        return c == '.';
+    }
+}
@@ -0,0 +1,188 @@
+package personal.gokul2411s.regular_automata;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import lombok.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+import static personal.gokul2411s.regular_automata.AutomatonFactory.*;
+
+/**
+ * Matches an input against many patterns in a single pass. The patterns are unioned into one automaton and
+ * determinized, and every state of the result remembers which patterns accept when the input ends there.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@EqualsAndHashCode(exclude = "utf8Dfa")
+@ToString(exclude = "utf8Dfa")
+public class RegexSet {
+
+    private static final int[] NO_PATTERNS = new int[0];
+
+    @NonNull
+    private final List<String> patterns;
+
+    /**
+     * Deterministic automaton over the char classes of all the patterns.
+     */
+    @NonNull
+    private final Automaton<Integer> compiledAutomaton;
+
+    @NonNull
+    private final DenseDfa dfa;
+
+    /**
+     * Sorted indices of the patterns that accept in each state of the dfa.
+     */
+    @NonNull
+    @Getter(AccessLevel.NONE)
+    private final int[][] acceptedPatterns;
+
+    /**
+     * Null if some pattern requires no literal, or if the automaton rejects most inputs at their first char anyway.
+     */
+    private final Prefilter prefilter;
+
+    /**
+     * Automaton over the bytes of UTF-8 encoded input accepting what any of the patterns matches, built on first use.
+     */
+    @Getter(value = AccessLevel.PRIVATE, lazy = true)
+    private final Utf8Dfa utf8Dfa = new Utf8Compilation().apply(dfa);
+
+    /**
+     * Returns the indices of the patterns that match the whole input.
+     */
+    public BitSet matchingPatterns(CharSequence input) {
+        BitSet matching = new BitSet(patterns.size());
+        int state = finalState(input);
+        if (state != DenseDfa.DEAD_STATE) {
+            for (int pattern : acceptedPatterns[state]) {
+                matching.set(pattern);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Returns true if any of the patterns matches the whole input.
+     */
+    public boolean matchesAny(CharSequence input) {
+        return dfa.isAccepting(finalState(input));
+    }
+
+    /**
+     * Passes the offsets of every line of the UTF-8 file that any of the patterns matches to the handler, in order.
+     * The file is memory-mapped rather than read. See {@link LineScanner}.
+     */
+    public void forEachMatchingLine(Path file, LineScanner.LineHandler handler) throws IOException {
+        new LineScanner(getUtf8Dfa()).forEachMatchingLine(file, handler);
+    }
+
+    private int finalState(CharSequence input) {
+        if (prefilter != null && !prefilter.mightMatch(input)) {
+            return DenseDfa.DEAD_STATE;
+        }
+        int state = dfa.getInitialState();
+        for (int i = 0, n = input.length(); i < n && state != DenseDfa.DEAD_STATE; i++) {
+            state = dfa.nextState(state, input.charAt(i));
+        }
+        return state;
+    }
+
+    public static RegexSetBuilder builder() {
+        return new RegexSetBuilder();
+    }
+
+    public static class RegexSetBuilder {
+
+        private final List<String> patterns = new ArrayList<>();
+        private boolean prefiltering = true;
+        private boolean parallelDeterminization;
+
+        /**
+         * Adds a pattern, whose index is the number of patterns added before it.
+         */
+        public RegexSetBuilder withPattern(String pattern) {
+            Preconditions.checkNotNull(pattern);
+            patterns.add(pattern);
+            return this;
+        }
+
+        public RegexSetBuilder withPatterns(Collection<String> patterns) {
+            Preconditions.checkNotNull(patterns);
+            patterns.forEach(this::withPattern);
+            return this;
+        }
+
+        /**
+         * Whether to reject inputs that contain none of the literals required by the patterns before running the
+         * automaton, which is the default.
+         */
+        public RegexSetBuilder withPrefiltering(boolean prefiltering) {
+            this.prefiltering = prefiltering;
+            return this;
+        }
+
+        /**
+         * Whether to determinize the union of the patterns on the common fork/join pool, which pays off for large
+         * sets of patterns.
+         */
+        public RegexSetBuilder withParallelDeterminization(boolean parallelDeterminization) {
+            this.parallelDeterminization = parallelDeterminization;
+            return this;
+        }
+
+        public RegexSet build() {
+            Preconditions.checkState(!patterns.isEmpty(), "No patterns");
+
+            List<RegexNode> syntaxTrees = new ArrayList<>();
+            RegexParser parser = new RegexParser();
+            for (String pattern : patterns) {
+                syntaxTrees.add(parser.apply(pattern));
+            }
+            CharClasses charClasses = Regex.RegexBuilder.charClasses(syntaxTrees);
+            Prefilter prefilter = prefiltering ? Regex.RegexBuilder.prefilter(syntaxTrees) : null;
+
+            // The union numbers the states of each operand after those of the operands before it, so the final
+            // states of every pattern can be told apart inside the union.
+            ThompsonConstruction construction = new ThompsonConstruction(charClasses);
+            List<Automaton<Integer>> automata = new ArrayList<>();
+            for (RegexNode syntaxTree : syntaxTrees) {
+                automata.add(construction.apply(syntaxTree));
+            }
+            int[] patternOfState = new int[automata.stream().mapToInt(Automaton::getNumStates).sum()];
+            Arrays.fill(patternOfState, -1);
+            int stateOffset = 0;
+            for (int pattern = 0; pattern < automata.size(); pattern++) {
+                Automaton<Integer> automaton = automata.get(pattern);
+                for (int finalState : automaton.getFinalStates()) {
+                    patternOfState[stateOffset + finalState] = pattern;
+                }
+                stateOffset += automaton.getNumStates();
+            }
+
+            List<Set<Integer>> memberStates = new ArrayList<>();
+            Automaton<Integer> dfa =
+                    parallelDeterminization
+                            ? new ParallelDeterminization<Integer>().apply(unioned(automata), memberStates)
+                            : new Determinization<Integer>().apply(unioned(automata), memberStates);
+
+            int[][] acceptedPatterns = new int[dfa.getNumStates()][];
+            for (int state = 0; state < acceptedPatterns.length; state++) {
+                BitSet accepted = new BitSet(patterns.size());
+                for (int member : memberStates.get(state)) {
+                    if (member < patternOfState.length && patternOfState[member] >= 0) {
+                        accepted.set(patternOfState[member]);
+                    }
+                }
+                acceptedPatterns[state] = accepted.isEmpty() ? NO_PATTERNS : accepted.stream().toArray();
+            }
+
+            return new RegexSet(
+                    ImmutableList.copyOf(patterns), dfa, compiled(dfa, charClasses), acceptedPatterns, prefilter);
+        }
+    }
+}
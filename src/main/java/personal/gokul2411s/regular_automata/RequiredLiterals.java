@@ -0,0 +1,140 @@
+package personal.gokul2411s.regular_automata;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Extracts from a regex syntax tree a set of literals such that every input matching the regex contains at least one
+ * of them. Returns an empty set if no such set was found.
+ *
+ * Runs of literal chars in a sequence are required as a whole. An alternation requires one of the literals of its
+ * branches, if every branch requires some. Among the candidates of a sequence, the one whose shortest literal is
+ * longest is kept.
+ */
+public class RequiredLiterals implements Function<RegexNode, Set<String>> {
+
+    /**
+     * Alternations requiring more literals than this are treated as requiring none.
+     */
+    private static final int MAX_LITERALS = 1024;
+
+    @Override
+    public Set<String> apply(RegexNode syntaxTree) {
+        Set<String> literals = syntaxTree.accept(new Extractor());
+        return literals == null ? Collections.emptySet() : literals;
+    }
+
+    /**
+     * Returns true if every match of the regex starts with a literal char, in which case an anchored match already
+     * rejects most inputs at their first char.
+     */
+    static boolean startsWithLiteral(RegexNode syntaxTree) {
+        return syntaxTree.accept(new RegexNode.Visitor<Boolean>() {
+
+            @Override
+            public Boolean visitEmpty(RegexNode.Empty empty) {
+                return false;
+            }
+
+            @Override
+            public Boolean visitLiteral(RegexNode.Literal literal) {
+                return true;
+            }
+
+            @Override
+            public Boolean visitAnyChar(RegexNode.AnyChar anyChar) {
+                return false;
+            }
+
+            @Override
+            public Boolean visitSequence(RegexNode.Sequence sequence) {
+                return !sequence.getNodes().isEmpty() && sequence.getNodes().get(0).accept(this);
+            }
+
+            @Override
+            public Boolean visitAlternation(RegexNode.Alternation alternation) {
+                return alternation.getNodes().stream().allMatch(node -> node.accept(this));
+            }
+
+            @Override
+            public Boolean visitRepetition(RegexNode.Repetition repetition) {
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Returns the literals required by a node, or null if it requires none.
+     */
+    private static class Extractor implements RegexNode.Visitor<Set<String>> {
+
+        @Override
+        public Set<String> visitEmpty(RegexNode.Empty empty) {
+            return null;
+        }
+
+        @Override
+        public Set<String> visitLiteral(RegexNode.Literal literal) {
+            return Collections.singleton(String.valueOf(literal.getValue()));
+        }
+
+        @Override
+        public Set<String> visitAnyChar(RegexNode.AnyChar anyChar) {
+            return null;
+        }
+
+        @Override
+        public Set<String> visitSequence(RegexNode.Sequence sequence) {
+            Set<String> best = null;
+            StringBuilder run = new StringBuilder();
+            for (RegexNode node : sequence.getNodes()) {
+                if (node instanceof RegexNode.Literal) {
+                    run.append(((RegexNode.Literal) node).getValue());
+                    continue;
+                }
+                best = better(best, run.length() > 0 ? Collections.singleton(run.toString()) : null);
+                run.setLength(0);
+                best = better(best, node.accept(this));
+            }
+            return better(best, run.length() > 0 ? Collections.singleton(run.toString()) : null);
+        }
+
+        @Override
+        public Set<String> visitAlternation(RegexNode.Alternation alternation) {
+            Set<String> literals = new HashSet<>();
+            for (RegexNode node : alternation.getNodes()) {
+                Set<String> branchLiterals = node.accept(this);
+                if (branchLiterals == null) {
+                    return null;
+                }
+                literals.addAll(branchLiterals);
+                if (literals.size() > MAX_LITERALS) {
+                    return null;
+                }
+            }
+            return literals;
+        }
+
+        @Override
+        public Set<String> visitRepetition(RegexNode.Repetition repetition) {
+            // Zero repetitions are allowed.
+            return null;
+        }
+
+        private static Set<String> better(Set<String> first, Set<String> second) {
+            if (first == null || second == null) {
+                return first == null ? second : first;
+            }
+            int firstLength = shortest(first);
+            int secondLength = shortest(second);
+            if (firstLength != secondLength) {
+                return firstLength > secondLength ? first : second;
+            }
+            return first.size() <= second.size() ? first : second;
+        }
+
+        private static int shortest(Set<String> literals) {
+            return literals.stream().mapToInt(String::length).min().orElse(0);
+        }
+    }
+}
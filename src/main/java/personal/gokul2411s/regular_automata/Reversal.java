@@ -0,0 +1,49 @@
+package personal.gokul2411s.regular_automata;
+
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeMap;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Builds the automaton accepting the reversed inputs of the given one. Every transition is flipped, a new initial
+ * state has epsilon transitions to the old final states, and the old initial state is the only final state.
+ */
+public class Reversal<Symbol> implements Function<Automaton<Symbol>, Automaton<Symbol>> {
+
+    @Override
+    public Automaton<Symbol> apply(Automaton<Symbol> input) {
+
+        int newNumStates = input.getNumStates() + 1; // one extra initial state.
+        int newInitialState = newNumStates - 1;
+
+        Automaton.AutomatonBuilder<Symbol> outputBuilder =
+                Automaton.<Symbol>builder()
+                        .withNumStates(newNumStates)
+                        .withInitialState(newInitialState)
+                        .withFinalState(input.getInitialState());
+
+        for (int oldFinalState : input.getFinalStates()) {
+            outputBuilder.withEpsilonTransition(newInitialState, oldFinalState);
+        }
+        CompactTransitions<Symbol> edges = input.getEdges();
+        for (int s = 0; s < input.getNumStates(); s++) {
+            for (int e = edges.edgeStart(s); e < edges.edgeEnd(s); e++) {
+                outputBuilder.withTransition(edges.edgeTarget(e), edges.symbol(edges.edgeSymbol(e)), s);
+            }
+            for (int e = edges.epsilonStart(s); e < edges.epsilonEnd(s); e++) {
+                outputBuilder.withEpsilonTransition(edges.epsilonTarget(e), s);
+            }
+        }
+        for (Map.Entry<Integer, RangeMap<Comparable<?>, Set<Integer>>> entry : input.getRangeTransitions().entrySet()) {
+            for (Map.Entry<Range<Comparable<?>>, Set<Integer>> range : entry.getValue().asMapOfRanges().entrySet()) {
+                for (int fromState : range.getValue()) {
+                    outputBuilder.withRangeTransition(fromState, range.getKey(), entry.getKey());
+                }
+            }
+        }
+        return outputBuilder.build();
+    }
+}
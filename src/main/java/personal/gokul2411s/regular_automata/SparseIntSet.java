@@ -0,0 +1,53 @@
+package personal.gokul2411s.regular_automata;
+
+/**
+ * Set of ints in [0, capacity) with O(1) add, contains and clear, and iteration in insertion order (Briggs and
+ * Torczon's sparse set).
+ */
+final class SparseIntSet {
+
+    private final int[] dense;
+    private final int[] sparse;
+    private int size;
+
+    SparseIntSet(int capacity) {
+        dense = new int[capacity];
+        sparse = new int[capacity];
+    }
+
+    boolean contains(int value) {
+        int index = sparse[value];
+        return index < size && dense[index] == value;
+    }
+
+    /**
+     * Adds the value and returns true if it was not already present.
+     */
+    boolean add(int value) {
+        if (contains(value)) {
+            return false;
+        }
+        sparse[value] = size;
+        dense[size++] = value;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the index-th value in insertion order.
+     */
+    int get(int index) {
+        return dense[index];
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,123 @@
+package personal.gokul2411s.regular_automata;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Immutable set of automaton states held as a sorted int array, with a 64-bit hash computed once. Used as the key of
+ * a composite state, in place of a boxed set, so that equal sets are equal arrays whatever order their states were
+ * added in.
+ */
+final class StateSet {
+
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final int[] states;
+    private final long hash;
+
+    /**
+     * Takes ownership of the array, which must be sorted and free of duplicates.
+     */
+    StateSet(int[] states) {
+        this.states = states;
+        this.hash = hash(states, states.length);
+    }
+
+    int size() {
+        return states.length;
+    }
+
+    int get(int index) {
+        return states[index];
+    }
+
+    boolean isEmpty() {
+        return states.length == 0;
+    }
+
+    long hash64() {
+        return hash;
+    }
+
+    /**
+     * Returns true if any member is flagged in the array indexed by state.
+     */
+    boolean containsAny(boolean[] flags) {
+        for (int state : states) {
+            if (flags[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    Set<Integer> toSet() {
+        Set<Integer> set = new HashSet<>();
+        for (int state : states) {
+            set.add(state);
+        }
+        return set;
+    }
+
+    /**
+     * Returns true if the members are the first length states of the sorted array.
+     */
+    boolean hasStates(int[] sortedStates, int length) {
+        if (length != states.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (states[i] != sortedStates[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the members of the sparse set, sorted.
+     */
+    static StateSet of(SparseIntSet members) {
+        int[] states = new int[members.size()];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = members.get(i);
+        }
+        Arrays.sort(states);
+        return new StateSet(states);
+    }
+
+    /**
+     * Hash of the first length states of a sorted array, the same as that of a state set holding them.
+     */
+    static long hash(int[] sortedStates, int length) {
+        long hash = length;
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ sortedStates[i]) * HASH_MULTIPLIER;
+            hash ^= hash >>> 29;
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StateSet)) {
+            return false;
+        }
+        StateSet other = (StateSet) o;
+        return hash == other.hash && Arrays.equals(states, other.states);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(states);
+    }
+}
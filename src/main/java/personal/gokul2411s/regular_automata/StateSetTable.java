@@ -0,0 +1,130 @@
+package personal.gokul2411s.regular_automata;
+
+import java.util.Arrays;
+
+/**
+ * Interns state sets, numbering each distinct set in the order it was first added. Lookups take the members from a
+ * sparse set, sort them into a buffer and probe an open-addressing table by their 64-bit hash, so a set that is
+ * already known costs no allocation. Only a new set is copied into a {@link StateSet}.
+ *
+ * Not thread-safe.
+ */
+final class StateSetTable {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Per slot, one more than the id of the set in it, or 0 if the slot is free.
+     */
+    private int[] slots;
+
+    /**
+     * Per slot, the hash of the set in it, compared before the members are.
+     */
+    private long[] slotHashes;
+
+    private StateSet[] sets;
+    private int size;
+    private int[] buffer;
+
+    StateSetTable() {
+        slots = new int[INITIAL_CAPACITY];
+        slotHashes = new long[INITIAL_CAPACITY];
+        sets = new StateSet[INITIAL_CAPACITY / 2];
+        buffer = new int[INITIAL_CAPACITY];
+    }
+
+    int size() {
+        return size;
+    }
+
+    StateSet get(int id) {
+        return sets[id];
+    }
+
+    /**
+     * Returns the id of the set holding exactly the members, or -1 if there is none.
+     */
+    int find(SparseIntSet members) {
+        int length = sortIntoBuffer(members);
+        long hash = StateSet.hash(buffer, length);
+        return slots[slotOf(hash, length)] - 1;
+    }
+
+    /**
+     * Returns the id of the set holding exactly the members, adding the set under the next id if it is new.
+     */
+    int intern(SparseIntSet members) {
+        int length = sortIntoBuffer(members);
+        long hash = StateSet.hash(buffer, length);
+        int slot = slotOf(hash, length);
+        if (slots[slot] != 0) {
+            return slots[slot] - 1;
+        }
+        int id = size++;
+        if (id == sets.length) {
+            sets = Arrays.copyOf(sets, sets.length * 2);
+        }
+        sets[id] = new StateSet(Arrays.copyOf(buffer, length));
+        slots[slot] = id + 1;
+        slotHashes[slot] = hash;
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return id;
+    }
+
+    /**
+     * Forgets every set, keeping the allocated capacity.
+     */
+    void clear() {
+        Arrays.fill(slots, 0);
+        Arrays.fill(sets, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Returns the slot of the set with the given hash and the first length states of the buffer as members, or the
+     * free slot where it belongs.
+     */
+    private int slotOf(long hash, int length) {
+        int mask = slots.length - 1;
+        for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < 0 || (slotHashes[slot] == hash && sets[id].hasStates(buffer, length))) {
+                return slot;
+            }
+        }
+    }
+
+    private int sortIntoBuffer(SparseIntSet members) {
+        int length = members.size();
+        if (length > buffer.length) {
+            buffer = new int[Math.max(length, buffer.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            buffer[i] = members.get(i);
+        }
+        Arrays.sort(buffer, 0, length);
+        return length;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldSlots = slots;
+        long[] oldHashes = slotHashes;
+        slots = new int[capacity];
+        slotHashes = new long[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] == 0) {
+                continue;
+            }
+            int slot = (int) oldHashes[i] & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = oldSlots[i];
+            slotHashes[slot] = oldHashes[i];
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package personal.gokul2411s.regular_automata;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static personal.gokul2411s.regular_automata.AutomatonFactory.*;
+
+/**
+ * Builds an automaton over char classes from a regex syntax tree by composing the automata of its nodes with
+ * {@link Concatenation}, {@link Union} and {@link KleeneStar}. Sequences and alternations are combined in one n-ary
+ * step, so every fragment is copied once per enclosing node.
+ */
+public class ThompsonConstruction implements Function<RegexNode, Automaton<Integer>> {
+
+    private final CharClasses charClasses;
+
+    public ThompsonConstruction(CharClasses charClasses) {
+        this.charClasses = charClasses;
+    }
+
+    @Override
+    public Automaton<Integer> apply(RegexNode node) {
+        return node.accept(new RegexNode.Visitor<Automaton<Integer>>() {
+
+            @Override
+            public Automaton<Integer> visitEmpty(RegexNode.Empty empty) {
+                return automatonAcceptingEmptyInput();
+            }
+
+            @Override
+            public Automaton<Integer> visitLiteral(RegexNode.Literal literal) {
+                return automatonAcceptingSingleSymbol(charClasses.classOf(literal.getValue()));
+            }
+
+            @Override
+            public Automaton<Integer> visitAnyChar(RegexNode.AnyChar anyChar) {
+                List<Integer> allClasses =
+                        IntStream.range(0, charClasses.getNumClasses()).boxed().collect(Collectors.toList());
+                return automatonAcceptingAnySymbol(allClasses);
+            }
+
+            @Override
+            public Automaton<Integer> visitSequence(RegexNode.Sequence sequence) {
+                return concatenated(children(sequence.getNodes()));
+            }
+
+            @Override
+            public Automaton<Integer> visitAlternation(RegexNode.Alternation alternation) {
+                return unioned(children(alternation.getNodes()));
+            }
+
+            private List<Automaton<Integer>> children(List<RegexNode> nodes) {
+                return nodes.stream().map(node -> node.accept(this)).collect(Collectors.toList());
+            }
+
+            @Override
+            public Automaton<Integer> visitRepetition(RegexNode.Repetition repetition) {
+                return kleeneStarred(repetition.getNode().accept(this));
+            }
+        });
+    }
+}
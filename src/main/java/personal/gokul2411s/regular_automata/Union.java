@@ -1,5 +1,9 @@
 package personal.gokul2411s.regular_automata;
 
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+import java.util.List;
 import java.util.function.BiFunction;
 
 import static personal.gokul2411s.regular_automata.AutomatonCopyUtils.addEpsilonTransitions;
@@ -10,9 +14,17 @@ public class Union<Symbol> implements BiFunction<Automaton<Symbol>, Automaton<Sy
 
     @Override
     public Automaton<Symbol> apply(Automaton<Symbol> firstAutomaton, Automaton<Symbol> secondAutomaton) {
+        return apply(Arrays.asList(firstAutomaton, secondAutomaton));
+    }
+
+    /**
+     * Unions any number of automata at once, copying each of them exactly once, instead of recopying the union so
+     * far for each of them as a fold over the pairwise union would.
+     */
+    public Automaton<Symbol> apply(List<Automaton<Symbol>> automata) {
+        Preconditions.checkArgument(!automata.isEmpty(), "Nothing to union");
 
-        int numStatesInFirst = firstAutomaton.getNumStates();
-        int newNumStates = numStatesInFirst + secondAutomaton.getNumStates() + 2;
+        int newNumStates = automata.stream().mapToInt(Automaton::getNumStates).sum() + 2;
         int newInitialState = newNumStates - 2;
         int newFinalState = newNumStates - 1;
 
@@ -20,17 +32,16 @@ public class Union<Symbol> implements BiFunction<Automaton<Symbol>, Automaton<Sy
                 Automaton.<Symbol>builder()
                         .withNumStates(newNumStates)
                         .withInitialState(newInitialState)
-                        .withFinalState(newFinalState)
-                        .withEpsilonTransition(newInitialState, firstAutomaton.getInitialState())
-                        .withEpsilonTransition(newInitialState, secondAutomaton.getInitialState() + numStatesInFirst);
-
-        addEpsilonTransitions(outputBuilder, firstAutomaton.getFinalStates(), newFinalState);
-        copyTransitions(firstAutomaton, outputBuilder);
-        copyEpsilonTransitions(firstAutomaton, outputBuilder);
-
-        addEpsilonTransitions(outputBuilder, secondAutomaton.getFinalStates(), newFinalState, numStatesInFirst);
-        copyTransitions(secondAutomaton, outputBuilder, numStatesInFirst);
-        copyEpsilonTransitions(secondAutomaton, outputBuilder, numStatesInFirst);
+                        .withFinalState(newFinalState);
+
+        int stateOffset = 0;
+        for (Automaton<Symbol> automaton : automata) {
+            outputBuilder.withEpsilonTransition(newInitialState, automaton.getInitialState() + stateOffset);
+            addEpsilonTransitions(outputBuilder, automaton.getFinalStates(), newFinalState, stateOffset);
+            copyTransitions(automaton, outputBuilder, stateOffset);
+            copyEpsilonTransitions(automaton, outputBuilder, stateOffset);
+            stateOffset += automaton.getNumStates();
+        }
 
         return outputBuilder.build();
     }
@@ -0,0 +1,208 @@
+package personal.gokul2411s.regular_automata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static personal.gokul2411s.regular_automata.AutomatonFactory.*;
+
+/**
+ * Compiles a dense automaton over chars into one over the bytes of their UTF-8 encoding.
+ *
+ * Every transition on a char class becomes paths of byte range transitions, one path per range of code points whose
+ * encodings differ only in bytes that range over a full interval, as in the usual UTF-8 range splitting. A
+ * supplementary code point is a pair of surrogate chars, so a transition on high surrogates followed by one on low
+ * surrogates becomes a single path of four bytes. The byte automaton is then determinized, minimized and compiled.
+ */
+public class Utf8Compilation implements Function<DenseDfa, Utf8Dfa> {
+
+    private static final int[] MAX_CODE_POINTS = { 0x7F, 0x7FF, 0xFFFF, 0x10FFFF };
+
+    @Override
+    public Utf8Dfa apply(DenseDfa dfa) {
+        CharClasses classes = dfa.getCharClasses();
+        int numClasses = classes.getNumClasses();
+
+        // Chars of every class, split into the non-surrogate ones and the high and low surrogates.
+        List<List<char[]>> plainIntervals = new ArrayList<>();
+        List<List<char[]>> highSurrogateIntervals = new ArrayList<>();
+        List<List<char[]>> lowSurrogateIntervals = new ArrayList<>();
+        for (int c = 0; c < numClasses; c++) {
+            plainIntervals.add(new ArrayList<>());
+            highSurrogateIntervals.add(new ArrayList<>());
+            lowSurrogateIntervals.add(new ArrayList<>());
+        }
+        char[] starts = classes.getIntervalStarts();
+        for (int i = 0; i < starts.length; i++) {
+            int lo = starts[i];
+            int hi = i + 1 < starts.length ? starts[i + 1] - 1 : Character.MAX_VALUE;
+            int classId = classes.getIntervalClasses()[i];
+            addClipped(plainIntervals.get(classId), lo, hi, Character.MIN_VALUE, Character.MIN_SURROGATE - 1);
+            addClipped(
+                    highSurrogateIntervals.get(classId), lo, hi,
+                    Character.MIN_HIGH_SURROGATE, Character.MAX_HIGH_SURROGATE);
+            addClipped(
+                    lowSurrogateIntervals.get(classId), lo, hi,
+                    Character.MIN_LOW_SURROGATE, Character.MAX_LOW_SURROGATE);
+            addClipped(plainIntervals.get(classId), lo, hi, Character.MAX_SURROGATE + 1, Character.MAX_VALUE);
+        }
+
+        ByteAutomatonBuilder byteBuilder = new ByteAutomatonBuilder(dfa.getNumStates());
+        for (int state = 0; state < dfa.getNumStates(); state++) {
+            for (int c = 0; c < numClasses; c++) {
+                int target = dfa.getTransitions()[state * numClasses + c];
+                if (target == DenseDfa.DEAD_STATE) {
+                    continue;
+                }
+                for (char[] interval : plainIntervals.get(c)) {
+                    byteBuilder.addCodePoints(state, interval[0], interval[1], target);
+                }
+                if (highSurrogateIntervals.get(c).isEmpty()) {
+                    continue;
+                }
+                for (int d = 0; d < numClasses; d++) {
+                    int pairTarget = dfa.getTransitions()[target * numClasses + d];
+                    if (pairTarget == DenseDfa.DEAD_STATE) {
+                        continue;
+                    }
+                    for (char[] highs : highSurrogateIntervals.get(c)) {
+                        for (char[] lows : lowSurrogateIntervals.get(d)) {
+                            addSurrogatePairs(byteBuilder, state, highs, lows, pairTarget);
+                        }
+                    }
+                }
+            }
+        }
+
+        Automaton.AutomatonBuilder<Character> builder = byteBuilder.builder;
+        if (dfa.getInitialState() == DenseDfa.DEAD_STATE) {
+            builder.withInitialState(byteBuilder.newState());
+        } else {
+            builder.withInitialState(dfa.getInitialState());
+        }
+        for (int state = 0; state < dfa.getNumStates(); state++) {
+            if (dfa.isAccepting(state)) {
+                builder.withFinalState(state);
+            }
+        }
+        Automaton<Character> byteAutomaton = builder.withNumStates(byteBuilder.numStates).build();
+
+        DenseDfa byteDfa = compiled(minimized(determinized(byteAutomaton)));
+        int[] byteClasses = new int[256];
+        for (int b = 0; b < byteClasses.length; b++) {
+            byteClasses[b] = byteDfa.getCharClasses().classOf((char) b);
+        }
+        return new Utf8Dfa(byteDfa, byteClasses);
+    }
+
+    private static void addClipped(List<char[]> intervals, int lo, int hi, int min, int max) {
+        lo = Math.max(lo, min);
+        hi = Math.min(hi, max);
+        if (lo <= hi) {
+            intervals.add(new char[] { (char) lo, (char) hi });
+        }
+    }
+
+    private static void addSurrogatePairs(
+            ByteAutomatonBuilder byteBuilder, int from, char[] highs, char[] lows, int to) {
+        if (lows[0] == Character.MIN_LOW_SURROGATE && lows[1] == Character.MAX_LOW_SURROGATE) {
+            // Every low surrogate follows, so the code points of the pairs form a single range.
+            byteBuilder.addCodePoints(
+                    from, Character.toCodePoint(highs[0], lows[0]), Character.toCodePoint(highs[1], lows[1]), to);
+            return;
+        }
+        for (int high = highs[0]; high <= highs[1]; high++) {
+            byteBuilder.addCodePoints(
+                    from,
+                    Character.toCodePoint((char) high, lows[0]),
+                    Character.toCodePoint((char) high, lows[1]),
+                    to);
+        }
+    }
+
+    /**
+     * Builds the byte automaton, whose first states are those of the char automaton. Bytes are chars from 0 to 255.
+     */
+    private static class ByteAutomatonBuilder {
+
+        private final Automaton.AutomatonBuilder<Character> builder = Automaton.builder();
+        private int numStates;
+
+        private ByteAutomatonBuilder(int numStates) {
+            this.numStates = numStates;
+        }
+
+        private int newState() {
+            return numStates++;
+        }
+
+        /**
+         * Adds paths from one state to another on the encodings of the code points in [lo, hi].
+         */
+        private void addCodePoints(int from, int lo, int hi, int to) {
+            for (int maxCodePoint : MAX_CODE_POINTS) {
+                if (lo > hi) {
+                    return;
+                }
+                if (lo <= maxCodePoint) {
+                    addSameLength(from, lo, Math.min(hi, maxCodePoint), to);
+                    lo = maxCodePoint + 1;
+                }
+            }
+        }
+
+        /**
+         * Adds paths for a range of code points whose encodings have the same length, split until each piece is a
+         * sequence of byte ranges.
+         */
+        private void addSameLength(int from, int lo, int hi, int to) {
+            int length = encodedLength(lo);
+            for (int i = 1; i < length; i++) {
+                int mask = (1 << (6 * i)) - 1;
+                if ((lo & ~mask) != (hi & ~mask)) {
+                    if ((lo & mask) != 0) {
+                        addSameLength(from, lo, lo | mask, to);
+                        addSameLength(from, (lo | mask) + 1, hi, to);
+                        return;
+                    }
+                    if ((hi & mask) != mask) {
+                        addSameLength(from, lo, (hi & ~mask) - 1, to);
+                        addSameLength(from, hi & ~mask, hi, to);
+                        return;
+                    }
+                }
+            }
+            byte[] loBytes = encoded(lo, length);
+            byte[] hiBytes = encoded(hi, length);
+            int state = from;
+            for (int i = 0; i < length; i++) {
+                int next = i == length - 1 ? to : newState();
+                builder.withRangeTransition(state, (char) (loBytes[i] & 0xFF), (char) (hiBytes[i] & 0xFF), next);
+                state = next;
+            }
+        }
+
+        private static int encodedLength(int codePoint) {
+            for (int i = 0; i < MAX_CODE_POINTS.length; i++) {
+                if (codePoint <= MAX_CODE_POINTS[i]) {
+                    return i + 1;
+                }
+            }
+            throw new IllegalArgumentException("Not a code point: " + codePoint);
+        }
+
+        private static byte[] encoded(int codePoint, int length) {
+            byte[] bytes = new byte[length];
+            if (length == 1) {
+                bytes[0] = (byte) codePoint;
+                return bytes;
+            }
+            for (int i = length - 1; i > 0; i--) {
+                bytes[i] = (byte) (0x80 | (codePoint & 0x3F));
+                codePoint >>>= 6;
+            }
+            bytes[0] = (byte) ((0xFF << (8 - length)) | codePoint);
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package personal.gokul2411s.regular_automata;
+
+import lombok.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A deterministic automaton over the bytes of UTF-8 encoded input, accepting the encodings of the inputs accepted by
+ * a char automaton. Input that is not valid UTF-8 is rejected.
+ *
+ * Bytes go through a 256-entry class table into the transition table of a {@link DenseDfa} whose symbols are the byte
+ * values as chars.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class Utf8Dfa {
+
+    @NonNull
+    private final DenseDfa byteDfa;
+
+    /**
+     * Class of every byte value, in the char classes of the byte dfa.
+     */
+    @NonNull
+    @Getter(AccessLevel.NONE)
+    private final int[] byteClasses;
+
+    /**
+     * Returns the state reached from the given state on the given byte, or {@link DenseDfa#DEAD_STATE}.
+     */
+    public int nextState(int state, byte b) {
+        return byteDfa.getTransitions()[state * byteDfa.getCharClasses().getNumClasses() + byteClasses[b & 0xFF]];
+    }
+
+    /**
+     * Returns true if the automaton accepts the len bytes from off.
+     */
+    public boolean matches(byte[] input, int off, int len) {
+        int[] table = byteDfa.getTransitions();
+        boolean[] sinks = byteDfa.getAcceptingSinks();
+        int[] classes = byteClasses;
+        int numClasses = byteDfa.getCharClasses().getNumClasses();
+        int state = byteDfa.getInitialState();
+        for (int i = off, end = off + len; i < end; i++) {
+            if (state == DenseDfa.DEAD_STATE) {
+                return false;
+            }
+            if (sinks[state]) {
+                return true;
+            }
+            state = table[state * numClasses + classes[input[i] & 0xFF]];
+        }
+        return byteDfa.isAccepting(state);
+    }
+
+    /**
+     * Returns true if the automaton accepts the remaining bytes of the buffer, which are left unconsumed.
+     */
+    public boolean matches(ByteBuffer input) {
+        return matches(input, input.position(), input.limit());
+    }
+
+    /**
+     * Returns true if the automaton accepts the bytes of the buffer from index from to index to, exclusive. The
+     * position of the buffer is ignored and left as it is.
+     */
+    public boolean matches(ByteBuffer input, int from, int to) {
+        if (input.hasArray()) {
+            return matches(input.array(), input.arrayOffset() + from, to - from);
+        }
+        int[] table = byteDfa.getTransitions();
+        boolean[] sinks = byteDfa.getAcceptingSinks();
+        int numClasses = byteDfa.getCharClasses().getNumClasses();
+        int state = byteDfa.getInitialState();
+        for (int i = from; i < to; i++) {
+            if (state == DenseDfa.DEAD_STATE) {
+                return false;
+            }
+            if (sinks[state]) {
+                return true;
+            }
+            state = table[state * numClasses + byteClasses[input.get(i) & 0xFF]];
+        }
+        return byteDfa.isAccepting(state);
+    }
+
+    /**
+     * Returns true if the automaton accepts the remaining bytes of the buffer, splitting long inputs into chunks that
+     * are run on the pool in parallel. The bytes are left unconsumed. See {@link ParallelScan}.
+     */
+    public boolean matchesInParallel(ByteBuffer input, ForkJoinPool pool) {
+        return matchesInParallel(input, pool, ParallelScan.DEFAULT_CHUNK_SIZE);
+    }
+
+    boolean matchesInParallel(ByteBuffer input, ForkJoinPool pool, int chunkSize) {
+        // Absolute gets leave the buffer as it is, so every chunk can read the same buffer.
+        ParallelScan.Stepper stepper = (state, i) -> nextState(state, input.get(i));
+        return byteDfa.isAccepting(
+                ParallelScan.finalState(byteDfa, stepper, input.position(), input.limit(), chunkSize, pool));
+    }
+}
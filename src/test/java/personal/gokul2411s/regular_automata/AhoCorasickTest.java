@@ -0,0 +1,51 @@
+package personal.gokul2411s.regular_automata;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class AhoCorasickTest {
+
+    @Test
+    public void ahoCorasick_shouldFindEndOfFirstOccurrence() {
+        AhoCorasick ahoCorasick = new AhoCorasick(Arrays.asList("he", "she", "his", "hers"));
+
+        assertThat(ahoCorasick.endOfFirstIn("ushers"), is(4));
+        assertThat(ahoCorasick.endOfFirstIn("ahis"), is(4));
+        assertThat(ahoCorasick.endOfFirstIn("hhe"), is(3));
+        assertThat(ahoCorasick.endOfFirstIn("shi"), is(-1));
+        assertThat(ahoCorasick.endOfFirstIn(""), is(-1));
+    }
+
+    @Test
+    public void ahoCorasick_shouldFollowFailureLinksIntoOtherLiterals() {
+        AhoCorasick ahoCorasick = new AhoCorasick(Arrays.asList("abcd", "bc"));
+
+        assertThat(ahoCorasick.mightMatch("xabcx"), is(true));
+        assertThat(ahoCorasick.endOfFirstIn("xabcx"), is(4));
+        assertThat(ahoCorasick.mightMatch("abdc"), is(false));
+    }
+
+    @Test
+    public void ahoCorasick_shouldAgreeWithNaiveSearch() {
+        String[] literals = { "aab", "ab", "bba", "aaa" };
+        AhoCorasick ahoCorasick = new AhoCorasick(Arrays.asList(literals));
+        for (int bits = 0; bits < 1 << 7; bits++) {
+            StringBuilder input = new StringBuilder();
+            for (int i = 0; i < 7; i++) {
+                input.append((bits & 1 << i) != 0 ? 'a' : 'b');
+            }
+            int expected = -1;
+            for (String literal : literals) {
+                int index = input.indexOf(literal);
+                if (index >= 0 && (expected < 0 || index + literal.length() < expected)) {
+                    expected = index + literal.length();
+                }
+            }
+            assertThat(input.toString(), ahoCorasick.endOfFirstIn(input), is(expected));
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import java.util.Arrays;
+import java.util.HashSet;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -144,4 +145,228 @@ public class AutomatonTest {
 
         assertThat(automaton.accepts(Arrays.asList()), is(false));
     }
+
+    @Test
+    public void ifNonComparableSymbolsInRangeTransition_builder_shouldThrowException() {
+
+        thrown.expect(InvalidAutomatonException.class);
+        Automaton.<Object>builder()
+                .withNumStates(2)
+                .withRangeTransition(0, new Object(), new Object(), 1)
+                .build();
+    }
+
+    @Test
+    public void ifEmptyRangeInRangeTransition_builder_shouldThrowException() {
+
+        thrown.expect(InvalidAutomatonException.class);
+        Automaton.<Character>builder()
+                .withNumStates(2)
+                .withRangeTransition(0, 'z', 'a', 1)
+                .build();
+    }
+
+    @Test
+    public void ifInvalidToStateInRangeTransition_builder_shouldThrowException() {
+
+        thrown.expect(InvalidAutomatonException.class);
+        Automaton.<Character>builder()
+                .withNumStates(1)
+                .withRangeTransition(0, 'a', 'z', 1)
+                .build();
+    }
+
+    @Test
+    public void automaton_shouldFollowRangeTransitionsOnAnySymbolInRange() {
+
+        Automaton<Character> automaton =
+                Automaton.<Character>builder()
+                        .withNumStates(3)
+                        .withInitialState(0)
+                        .withFinalState(2)
+                        .withRangeTransition(0, 'a', 'z', 1)
+                        .withRangeTransition(1, '0', '9', 2)
+                        .build();
+
+        Character[] input1 = { 'a', '0' };
+        assertThat(automaton.accepts(input1), is(true));
+
+        Character[] input2 = { 'z', '9' };
+        assertThat(automaton.accepts(input2), is(true));
+
+        Character[] input3 = { 'A', '0' };
+        assertThat(automaton.accepts(input3), is(false));
+
+        Character[] input4 = { 'm', 'm' };
+        assertThat(automaton.accepts(input4), is(false));
+    }
+
+    @Test
+    public void automaton_shouldFollowAllOverlappingRangeAndSymbolTransitions() {
+
+        Automaton<Character> automaton =
+                Automaton.<Character>builder()
+                        .withNumStates(4)
+                        .withInitialState(0)
+                        .withFinalStates(new HashSet<>(Arrays.asList(1, 2, 3)))
+                        .withRangeTransition(0, 'a', 'm', 1)
+                        .withRangeTransition(0, 'h', 'z', 2)
+                        .withTransition(0, 'k', 3)
+                        .withTransition(3, 'k', 3)
+                        .build();
+
+        assertThat(automaton.accepts(new Character[] { 'b' }), is(true));
+        assertThat(automaton.accepts(new Character[] { 'y' }), is(true));
+        assertThat(automaton.accepts(new Character[] { 'k', 'k' }), is(true));
+        assertThat(automaton.accepts(new Character[] { 'j', 'k' }), is(false));
+    }
+
+    @Test
+    public void automaton_shouldGiveSameAnswersWhenReusedAcrossInputs() {
+
+        Automaton<Character> automaton =
+                Automaton.<Character>builder()
+                        .withNumStates(3)
+                        .withInitialState(0)
+                        .withFinalState(2)
+                        .withEpsilonTransition(0, 1)
+                        .withTransition(1, 'a', 0)
+                        .withTransition(1, 'b', 2)
+                        .build();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(automaton.accepts(new Character[] { 'a', 'a', 'b' }), is(true));
+            assertThat(automaton.accepts(new Character[] { 'a', 'b', 'a' }), is(false));
+            assertThat(automaton.accepts(new Character[] { 'c' }), is(false));
+        }
+    }
+
+    @Test
+    public void automaton_shouldAcceptFromGivenStates() {
+
+        Automaton<Character> automaton =
+                Automaton.<Character>builder()
+                        .withNumStates(3)
+                        .withInitialState(0)
+                        .withFinalState(2)
+                        .withTransition(0, 'a', 1)
+                        .withTransition(1, 'b', 2)
+                        .build();
+
+        assertThat(automaton.acceptsFrom(new HashSet<>(Arrays.asList(1)), Arrays.asList('b')), is(true));
+        assertThat(automaton.acceptsFrom(new HashSet<>(Arrays.asList(0)), Arrays.asList('b')), is(false));
+    }
+
+    @Test
+    public void epsilonClosure_shouldFollowEpsilonCycles() {
+
+        Automaton<Character> automaton =
+                Automaton.<Character>builder()
+                        .withNumStates(5)
+                        .withEpsilonTransition(0, 1)
+                        .withEpsilonTransition(1, 2)
+                        .withEpsilonTransition(2, 0)
+                        .withEpsilonTransition(2, 3)
+                        .build();
+
+        assertThat(automaton.epsilonClosure(0), is(new HashSet<>(Arrays.asList(0, 1, 2, 3))));
+        assertThat(automaton.epsilonClosure(2), is(new HashSet<>(Arrays.asList(0, 1, 2, 3))));
+        assertThat(automaton.epsilonClosure(3), is(new HashSet<>(Arrays.asList(3))));
+        assertThat(
+                automaton.epsilonClosure(new HashSet<>(Arrays.asList(3, 4))),
+                is(new HashSet<>(Arrays.asList(3, 4))));
+    }
+
+    @Test
+    public void statesThatCannotReachFinalState_shouldBeDead() {
+
+        Automaton<Character> automaton =
+                Automaton.<Character>builder()
+                        .withNumStates(5)
+                        .withInitialState(0)
+                        .withFinalState(2)
+                        .withTransition(0, 'a', 1)
+                        .withEpsilonTransition(1, 2)
+                        .withTransition(0, 'b', 3)
+                        .withTransition(3, 'b', 3)
+                        .withRangeTransition(4, 'a', 'z', 0)
+                        .build();
+
+        assertThat(automaton.isDeadState(0), is(false));
+        assertThat(automaton.isDeadState(1), is(false));
+        assertThat(automaton.isDeadState(2), is(false));
+        assertThat(automaton.isDeadState(3), is(true));
+        assertThat(automaton.isDeadState(4), is(false));
+        assertThat(automaton.accepts(new Character[] { 'b', 'b' }), is(false));
+    }
+
+    @Test
+    public void automataWithSameTransitionsAddedInDifferentOrder_shouldBeEqual() {
+
+        Automaton<Character> automaton1 =
+                Automaton.<Character>builder()
+                        .withNumStates(3)
+                        .withTransition(0, 'a', 1)
+                        .withTransition(0, 'b', 2)
+                        .withTransition(1, 'b', 2)
+                        .withEpsilonTransition(2, 0)
+                        .build();
+        Automaton<Character> automaton2 =
+                Automaton.<Character>builder()
+                        .withNumStates(3)
+                        .withEpsilonTransition(2, 0)
+                        .withTransition(1, 'b', 2)
+                        .withTransition(0, 'b', 2)
+                        .withTransition(0, 'a', 1)
+                        .build();
+
+        assertThat(automaton1, is(automaton2));
+        assertThat(automaton1.hashCode(), is(automaton2.hashCode()));
+    }
+
+    @Test
+    public void transitionViews_shouldShowFrozenTransitions() {
+
+        Automaton<Character> automaton =
+                Automaton.<Character>builder()
+                        .withNumStates(3)
+                        .withTransition(0, 'b', 2)
+                        .withTransition(0, 'a', 1)
+                        .withTransition(0, 'a', 2)
+                        .withEpsilonTransition(1, 2)
+                        .build();
+
+        assertThat(automaton.getTransitions().get(0, 'a'), is(new HashSet<>(Arrays.asList(1, 2))));
+        assertThat(automaton.getTransitions().get(0, 'b'), is(new HashSet<>(Arrays.asList(2))));
+        assertThat(automaton.getTransitions().size(), is(2));
+        assertThat(automaton.stateTransitions(0).keySet(), is(new HashSet<>(Arrays.asList('a', 'b'))));
+        assertThat(automaton.stateTransitions(1).isEmpty(), is(true));
+        assertThat(automaton.getEpsilonTransitions().get(1), is(new HashSet<>(Arrays.asList(2))));
+        assertThat(automaton.getEpsilonTransitions().size(), is(1));
+        assertThat(automaton.isDeterministic(), is(false));
+    }
+
+    @Test
+    public void rangeTransitions_shouldNotBeModifiableAfterBuild() {
+        Automaton<Character> automaton =
+                Automaton.<Character>builder()
+                        .withNumStates(2)
+                        .withRangeTransition(0, 'a', 'z', 1)
+                        .build();
+
+        thrown.expect(UnsupportedOperationException.class);
+        automaton.getRangeTransitions().remove(0);
+    }
+
+    @Test
+    public void rangeTransitionTargets_shouldNotBeModifiableAfterBuild() {
+        Automaton<Character> automaton =
+                Automaton.<Character>builder()
+                        .withNumStates(2)
+                        .withRangeTransition(0, 'a', 'z', 1)
+                        .build();
+
+        thrown.expect(UnsupportedOperationException.class);
+        automaton.stateRangeTransitions(0).get('m').add(0);
+    }
 }
@@ -0,0 +1,82 @@
+package personal.gokul2411s.regular_automata;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class BatchMatchingTest {
+
+    @Test
+    public void matchAll_shouldAgreeWithMatchingEachInput() {
+        List<String> inputs = randomInputs(5000);
+        for (boolean lazy : new boolean[] { false, true }) {
+            for (boolean prefiltering : new boolean[] { false, true }) {
+                Regex.RegexBuilder builder =
+                        Regex.builder().withPattern("(a|b)*abc(a|b|c)*").withPrefiltering(prefiltering);
+                if (lazy) {
+                    builder.withLazyDeterminization(4);
+                }
+                Regex regex = builder.build();
+
+                BitSet expected = new BitSet();
+                for (int i = 0; i < inputs.size(); i++) {
+                    if (regex.matches(inputs.get(i))) {
+                        expected.set(i);
+                    }
+                }
+                assertThat(regex.matchAll(inputs), is(expected));
+                assertThat(regex.matchAll(new LinkedList<>(inputs)), is(expected));
+            }
+        }
+    }
+
+    @Test
+    public void matchAll_shouldHandleSmallAndEmptyBatches() {
+        Regex regex = Regex.builder().withPattern("aa*").build();
+        List<StringBuilder> inputs = new ArrayList<>();
+        inputs.add(new StringBuilder("aa"));
+        inputs.add(new StringBuilder("b"));
+        inputs.add(new StringBuilder("a"));
+
+        BitSet expected = new BitSet();
+        expected.set(0);
+        expected.set(2);
+        assertThat(regex.matchAll(inputs), is(expected));
+        assertThat(regex.matchAll(new ArrayList<String>()), is(new BitSet()));
+    }
+
+    @Test
+    public void asPredicate_shouldFilterParallelStreams() {
+        List<String> inputs = randomInputs(2000);
+        Regex regex = Regex.builder().withPattern(".*cab.*").withLazyDeterminization(4).build();
+
+        List<String> expected = new ArrayList<>();
+        for (String input : inputs) {
+            if (regex.matches(input)) {
+                expected.add(input);
+            }
+        }
+        assertThat(inputs.parallelStream().filter(regex.asPredicate()).collect(Collectors.toList()), is(expected));
+    }
+
+    private static List<String> randomInputs(int count) {
+        Random random = new Random(42);
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            StringBuilder input = new StringBuilder();
+            for (int j = random.nextInt(12); j > 0; j--) {
+                input.append("abc".charAt(random.nextInt(3)));
+            }
+            inputs.add(input.toString());
+        }
+        return inputs;
+    }
+}
@@ -0,0 +1,159 @@
+package personal.gokul2411s.regular_automata;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class BinaryFormatTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String[] INPUTS = { "", "ab", "abab", "xaby", "aba", "cab", "b" };
+
+    @Test
+    public void automaton_shouldSurviveRoundTrip() {
+        Automaton<Integer> automaton =
+                Automaton.<Integer>builder()
+                        .withNumStates(4)
+                        .withInitialState(1)
+                        .withFinalState(3)
+                        .withFinalState(0)
+                        .withTransition(1, 7, 2)
+                        .withTransition(1, 7, 3)
+                        .withRangeTransition(2, 0, 5, 3)
+                        .withRangeTransition(2, 9, Integer.MAX_VALUE, 0)
+                        .withEpsilonTransition(3, 0)
+                        .build();
+
+        assertThat(BinaryFormat.readAutomaton(ByteBuffer.wrap(BinaryFormat.toBytes(automaton))), is(automaton));
+    }
+
+    @Test
+    public void denseRegex_shouldSurviveRoundTrip() {
+        Regex regex = Regex.builder().withPattern(".*ab(ab)*.*").build();
+
+        Regex loaded = BinaryFormat.readRegex(ByteBuffer.wrap(BinaryFormat.toBytes(regex)));
+
+        assertThat(loaded.getPattern(), is(regex.getPattern()));
+        assertThat(loaded.getCompiledAutomaton(), is(regex.getCompiledAutomaton()));
+        assertThat(loaded.getDfa(), is(regex.getDfa()));
+        assertThat(loaded.getPrefilter() != null, is(regex.getPrefilter() != null));
+        for (String input : INPUTS) {
+            assertThat(input, loaded.matches(input), is(regex.matches(input)));
+            assertThat(input, loaded.findAll(input), is(regex.findAll(input)));
+        }
+    }
+
+    @Test
+    public void lazyRegex_shouldSurviveRoundTrip() {
+        Regex regex = Regex.builder().withPattern("(a|b)*ab").withLazyDeterminization(4).build();
+
+        Regex loaded = BinaryFormat.readRegex(ByteBuffer.wrap(BinaryFormat.toBytes(regex)));
+
+        assertThat(loaded.getDfa() == null, is(true));
+        assertThat(loaded.getLazyDfa().getMaxCachedStates(), is(4));
+        for (String input : INPUTS) {
+            assertThat(input, loaded.matches(input), is(regex.matches(input)));
+        }
+    }
+
+    @Test
+    public void regex_shouldLoadFromMappedFile() throws Exception {
+        Path file = folder.newFile("rules.bin").toPath();
+        Regex regex = Regex.builder().withPattern("a(b|c)*d").withPrefiltering(false).build();
+        BinaryFormat.save(regex, file);
+
+        Regex loaded = BinaryFormat.loadRegex(file);
+
+        assertThat(loaded, is(regex));
+    }
+
+    @Test
+    public void reading_shouldIgnoreByteOrderOfBufferAndConsumeIt() {
+        Regex regex = Regex.builder().withPattern("abc").build();
+        byte[] bytes = BinaryFormat.toBytes(regex);
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 1).put(bytes).put((byte) 42);
+        buffer.flip();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        assertThat(BinaryFormat.readRegex(buffer).matches("abc"), is(true));
+        assertThat(buffer.remaining(), is(1));
+        assertThat(buffer.order(), is(ByteOrder.LITTLE_ENDIAN));
+    }
+
+    @Test
+    public void otherVersion_shouldBeRejected() {
+        byte[] bytes = BinaryFormat.toBytes(Regex.builder().withPattern("abc").build());
+        bytes[7] = (byte) (BinaryFormat.VERSION + 1);
+
+        thrown.expect(InvalidAutomatonException.class);
+        thrown.expectMessage(is("Unsupported format version " + (BinaryFormat.VERSION + 1)));
+        BinaryFormat.readRegex(ByteBuffer.wrap(bytes));
+    }
+
+    @Test
+    public void truncatedRegex_shouldBeRejected() {
+        byte[] bytes = BinaryFormat.toBytes(Regex.builder().withPattern("abc").build());
+
+        thrown.expect(InvalidAutomatonException.class);
+        BinaryFormat.readRegex(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 3)));
+    }
+
+    @Test
+    public void automaton_shouldNotBeReadAsRegex() {
+        byte[] bytes = BinaryFormat.toBytes(Regex.builder().withPattern("abc").build().getCompiledAutomaton());
+
+        thrown.expect(InvalidAutomatonException.class);
+        thrown.expectMessage(is("Not a regex"));
+        BinaryFormat.readRegex(ByteBuffer.wrap(bytes));
+    }
+
+    @Test
+    public void corruptBytes_shouldBeRejectedOrLoadAUsableRegex() {
+        for (Regex regex : Arrays.asList(
+                Regex.builder().withPattern(".*ab(ab)*.*").build(),
+                Regex.builder().withPattern("(a|b)*ab").withLazyDeterminization(4).build())) {
+            byte[] bytes = BinaryFormat.toBytes(regex);
+            for (int position = 0; position < bytes.length; position++) {
+                for (int mask : new int[] { 0x01, 0x10, 0x80, 0xFF }) {
+                    byte[] corrupt = bytes.clone();
+                    corrupt[position] ^= mask;
+                    Regex loaded;
+                    try {
+                        loaded = BinaryFormat.readRegex(ByteBuffer.wrap(corrupt));
+                    } catch (InvalidAutomatonException e) {
+                        continue;
+                    }
+                    for (String input : INPUTS) {
+                        loaded.matches(input);
+                        loaded.findAll(input);
+                    }
+                    loaded.matches(new String(new char[] { '\uFFFF', '\u1234', 'a' }));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void hugeStateCount_shouldBeRejectedBeforeAllocating() {
+        byte[] bytes = BinaryFormat.toBytes(Regex.builder().withPattern("abc").build().getCompiledAutomaton());
+        // The state count follows the 9-byte header.
+        bytes[9] = 0x7F;
+
+        thrown.expect(InvalidAutomatonException.class);
+        BinaryFormat.readAutomaton(ByteBuffer.wrap(bytes));
+    }
+}
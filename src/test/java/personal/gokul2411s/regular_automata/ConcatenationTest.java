@@ -2,10 +2,13 @@ package personal.gokul2411s.regular_automata;
 
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static personal.gokul2411s.regular_automata.AutomatonFactory.automatonAcceptingSingleSymbol;
 import static personal.gokul2411s.regular_automata.AutomatonFactory.concatenated;
+import static personal.gokul2411s.regular_automata.AutomatonFactory.kleeneStarred;
 
 public class ConcatenationTest {
 
@@ -25,4 +28,19 @@ public class ConcatenationTest {
         Character[] input3 = { 'a', 'b' };
         assertThat(concatenatedAutomaton.accepts(input3), is(true));
     }
+
+    @Test
+    public void concatenatedAutomaton_shouldAcceptConcatenationOfAllInputLanguages() {
+        Automaton<Character> concatenatedAutomaton =
+                concatenated(
+                        Arrays.asList(
+                                automatonAcceptingSingleSymbol('a'),
+                                kleeneStarred(automatonAcceptingSingleSymbol('b')),
+                                automatonAcceptingSingleSymbol('c')));
+
+        assertThat(concatenatedAutomaton.accepts(new Character[] { 'a', 'c' }), is(true));
+        assertThat(concatenatedAutomaton.accepts(new Character[] { 'a', 'b', 'b', 'c' }), is(true));
+        assertThat(concatenatedAutomaton.accepts(new Character[] { 'a', 'b' }), is(false));
+        assertThat(concatenatedAutomaton.accepts(new Character[] { 'c' }), is(false));
+    }
 }
@@ -2,7 +2,13 @@ package personal.gokul2411s.regular_automata;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static personal.gokul2411s.regular_automata.AutomatonFactory.*;
 
@@ -76,4 +82,75 @@ public class DeterminizationTest {
         Character[] input5 = { 'c' };
         assertThat(determinizedAutomaton.accepts(input5), is(false));
     }
+
+    @Test
+    public void determinization_shouldSplitOverlappingRanges() {
+        Automaton<Character> automaton =
+                unioned(
+                        unioned(automatonAcceptingRange('a', 'm'), automatonAcceptingRange('h', 'z')),
+                        concatenated(automatonAcceptingSingleSymbol('k'), automatonAcceptingSingleSymbol('k')));
+
+        Automaton<Character> determinizedAutomaton = determinized(automaton);
+
+        for (int state = 0; state < determinizedAutomaton.getNumStates(); state++) {
+            for (Set<Integer> targets :
+                    determinizedAutomaton.stateRangeTransitions(state).asMapOfRanges().values()) {
+                assertThat(targets.size(), is(1));
+            }
+            for (Character symbol : determinizedAutomaton.stateTransitions(state).keySet()) {
+                assertThat(determinizedAutomaton.stateRangeTransitions(state).get(symbol), is(nullValue()));
+            }
+        }
+
+        assertThat(determinizedAutomaton.accepts(new Character[] { 'a' }), is(true));
+        assertThat(determinizedAutomaton.accepts(new Character[] { 'j' }), is(true));
+        assertThat(determinizedAutomaton.accepts(new Character[] { 'k' }), is(true));
+        assertThat(determinizedAutomaton.accepts(new Character[] { 'z' }), is(true));
+        assertThat(determinizedAutomaton.accepts(new Character[] { 'k', 'k' }), is(true));
+        assertThat(determinizedAutomaton.accepts(new Character[] { 'j', 'k' }), is(false));
+        assertThat(determinizedAutomaton.accepts(new Character[] { 'A' }), is(false));
+    }
+
+    @Test
+    public void determinization_shouldLeaveOutDeadStates() {
+        Automaton<Character> automaton =
+                Automaton.<Character>builder()
+                        .withNumStates(4)
+                        .withInitialState(0)
+                        .withFinalState(1)
+                        .withTransition(0, 'a', 1)
+                        .withTransition(0, 'b', 2)
+                        .withTransition(2, 'c', 3)
+                        .build();
+
+        Automaton<Character> determinizedAutomaton = determinized(automaton);
+
+        assertThat(determinizedAutomaton.getNumStates(), is(2));
+        assertThat(determinizedAutomaton.accepts(new Character[] { 'a' }), is(true));
+        assertThat(determinizedAutomaton.accepts(new Character[] { 'b', 'c' }), is(false));
+    }
+
+    @Test
+    public void determinization_shouldBuildEachCompositeStateOnce() {
+        // Enough states that their hash set iteration order is no longer sorted.
+        Automaton<Character> aOrB = unioned(automatonAcceptingSingleSymbol('a'), automatonAcceptingSingleSymbol('b'));
+        List<Automaton<Character>> automata = new ArrayList<>();
+        for (int n = 2; n <= 5; n++) {
+            List<Automaton<Character>> parts = new ArrayList<>();
+            parts.add(kleeneStarred(aOrB));
+            parts.add(automatonAcceptingSingleSymbol('a'));
+            for (int i = 0; i < n; i++) {
+                parts.add(aOrB);
+            }
+            automata.add(concatenated(parts));
+        }
+        automata.add(concatenated(automatonAcceptingRange('a', 'x'), kleeneStarred(automatonAcceptingAllChars())));
+
+        List<Set<Integer>> memberStates = new ArrayList<>();
+        Automaton<Character> determinizedAutomaton =
+                new Determinization<Character>().apply(unioned(automata), memberStates);
+
+        assertThat(determinizedAutomaton.getNumStates(), is(memberStates.size()));
+        assertThat(new HashSet<>(memberStates).size(), is(memberStates.size()));
+    }
 }
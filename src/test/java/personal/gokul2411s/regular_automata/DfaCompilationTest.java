@@ -0,0 +1,136 @@
+package personal.gokul2411s.regular_automata;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static personal.gokul2411s.regular_automata.AutomatonFactory.*;
+
+public class DfaCompilationTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void compiledDfa_shouldAcceptSameLanguageAsDeterminizedAutomaton() {
+        Automaton<Character> automaton =
+                unioned(
+                        kleeneStarred(automatonAcceptingSingleSymbol('a')),
+                        concatenated(
+                                automatonAcceptingSingleSymbol('b'),
+                                automatonAcceptingSingleSymbol('c')));
+
+        DenseDfa dfa = compiled(determinized(automaton));
+
+        assertThat(dfa.matches(""), is(true));
+        assertThat(dfa.matches("aaa"), is(true));
+        assertThat(dfa.matches("bc"), is(true));
+        assertThat(dfa.matches("b"), is(false));
+        assertThat(dfa.matches("abc"), is(false));
+        assertThat(dfa.matches("x"), is(false));
+    }
+
+    @Test
+    public void compiledDfa_shouldFoldEquivalentCharsIntoOneClass() {
+        DenseDfa dfa = compiled(determinized(automatonAcceptingAllChars()));
+
+        // One class for every char, since they all lead to the same state.
+        assertThat(dfa.getCharClasses().getNumClasses(), is(1));
+        assertThat(dfa.matches("a"), is(true));
+        assertThat(dfa.matches(String.valueOf(Character.MAX_VALUE)), is(true));
+        assertThat(dfa.matches("ab"), is(false));
+    }
+
+    @Test
+    public void ifEpsilonTransitions_compilation_shouldThrowException() {
+        thrown.expect(InvalidAutomatonException.class);
+        compiled(concatenated(automatonAcceptingSingleSymbol('a'), automatonAcceptingSingleSymbol('b')));
+    }
+
+    @Test
+    public void ifMultipleTransitionsOnSymbol_compilation_shouldThrowException() {
+        thrown.expect(InvalidAutomatonException.class);
+        compiled(
+                Automaton.<Character>builder()
+                        .withNumStates(3)
+                        .withTransition(0, 'a', 1)
+                        .withTransition(0, 'a', 2)
+                        .build());
+    }
+
+    @Test
+    public void compiledDfa_shouldSendTransitionsIntoDeadStatesToDeadState() {
+        // State 2 is not final and only loops back to itself.
+        Automaton<Character> dfa =
+                Automaton.<Character>builder()
+                        .withNumStates(3)
+                        .withInitialState(0)
+                        .withFinalState(1)
+                        .withTransition(0, 'a', 1)
+                        .withTransition(0, 'b', 2)
+                        .withTransition(2, 'b', 2)
+                        .build();
+
+        DenseDfa compiledDfa = compiled(dfa);
+
+        assertThat(compiledDfa.nextState(0, 'b'), is(DenseDfa.DEAD_STATE));
+        assertThat(compiledDfa.matches("a"), is(true));
+        assertThat(compiledDfa.matches("bbb"), is(false));
+    }
+
+    @Test
+    public void compiledDfa_shouldMarkAcceptingSinks() {
+        Automaton<Character> automaton =
+                concatenated(automatonAcceptingSingleSymbol('a'), kleeneStarred(automatonAcceptingAllChars()));
+
+        DenseDfa dfa = compiled(minimized(determinized(automaton)));
+
+        assertThat(dfa.isAcceptingSink(dfa.getInitialState()), is(false));
+        assertThat(dfa.isAcceptingSink(dfa.nextState(dfa.getInitialState(), 'a')), is(true));
+        assertThat(dfa.isAcceptingSink(DenseDfa.DEAD_STATE), is(false));
+        assertThat(dfa.matches("axyz"), is(true));
+        assertThat(dfa.matches("xa"), is(false));
+    }
+
+    @Test
+    public void compiledDfa_shouldFindAcceptingSinksAlongChains() {
+        int length = 1000;
+        Automaton.AutomatonBuilder<Character> sinkChain = Automaton.<Character>builder().withNumStates(length);
+        Automaton.AutomatonBuilder<Character> brokenChain = Automaton.<Character>builder().withNumStates(length);
+        for (int s = 0; s < length; s++) {
+            int next = Math.min(s + 1, length - 1);
+            sinkChain.withFinalState(s).withRangeTransition(s, Character.MIN_VALUE, Character.MAX_VALUE, next);
+            brokenChain.withFinalState(s);
+            if (s < length - 1) {
+                brokenChain.withRangeTransition(s, Character.MIN_VALUE, Character.MAX_VALUE, next);
+            }
+        }
+        // The last state of the broken chain accepts, but has no transitions.
+
+        DenseDfa sinks = compiled(sinkChain.withInitialState(0).build());
+        DenseDfa noSinks = compiled(brokenChain.withInitialState(0).build());
+
+        for (int s = 0; s < length; s++) {
+            assertThat(sinks.isAcceptingSink(s), is(true));
+            assertThat(noSinks.isAcceptingSink(s), is(false));
+        }
+    }
+
+    @Test
+    public void compiledDfaAcceptingNothing_shouldStartInDeadState() {
+        Automaton<Character> dfa =
+                Automaton.<Character>builder()
+                        .withNumStates(2)
+                        .withInitialState(0)
+                        .withTransition(0, 'a', 1)
+                        .build();
+
+        DenseDfa compiledDfa = compiled(dfa);
+
+        assertThat(compiledDfa.getInitialState(), is(DenseDfa.DEAD_STATE));
+        assertThat(compiledDfa.matches(""), is(false));
+        assertThat(compiledDfa.matches("a"), is(false));
+    }
+}
@@ -0,0 +1,49 @@
+package personal.gokul2411s.regular_automata;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static personal.gokul2411s.regular_automata.AutomatonFactory.*;
+
+public class EpsilonRemovalTest {
+
+    @Test
+    public void epsilonRemoval_shouldReturnAutomatonWithNoEpsilonTransitions() {
+        Automaton<Character> automaton =
+                kleeneStarred(
+                        unioned(
+                                automatonAcceptingSingleSymbol('a'),
+                                concatenated(automatonAcceptingSingleSymbol('b'), automatonAcceptingRange('0', '9'))));
+
+        Automaton<Character> epsilonFreeAutomaton = epsilonFree(automaton);
+
+        assertThat(epsilonFreeAutomaton.getEpsilonTransitions().size(), is(0));
+        assertThat(epsilonFreeAutomaton.getNumStates() < automaton.getNumStates(), is(true));
+    }
+
+    @Test
+    public void epsilonRemoval_shouldPreserveLanguage() {
+        Automaton<Character> automaton =
+                kleeneStarred(
+                        unioned(
+                                automatonAcceptingSingleSymbol('a'),
+                                concatenated(automatonAcceptingSingleSymbol('b'), automatonAcceptingRange('0', '9'))));
+
+        Automaton<Character> epsilonFreeAutomaton = epsilonFree(automaton);
+
+        for (String input : new String[] { "", "a", "b5", "ab0a", "b", "ba", "a9", "b55" }) {
+            Character[] symbols = input.chars().mapToObj(c -> (char) c).toArray(Character[]::new);
+            assertThat(input, epsilonFreeAutomaton.accepts(symbols), is(automaton.accepts(symbols)));
+        }
+    }
+
+    @Test
+    public void epsilonRemoval_shouldKeepEmptyInputAcceptedThroughEpsilonTransitions() {
+        Automaton<Character> epsilonFreeAutomaton = epsilonFree(automatonAcceptingEmptyInput());
+
+        assertThat(epsilonFreeAutomaton.getNumStates(), is(1));
+        assertThat(epsilonFreeAutomaton.accepts(new Character[] { }), is(true));
+        assertThat(epsilonFreeAutomaton.accepts(new Character[] { 'a' }), is(false));
+    }
+}
@@ -0,0 +1,54 @@
+package personal.gokul2411s.regular_automata;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class GlushkovConstructionTest {
+
+    private static final String[] PATTERNS = {
+            "", "a", "abc", "a|bc", "ac*", "(abc)*", "(abc)|(def)", "a|b|c|d", "|b", "a|", "a*b*c*", ".*a*", "a..b",
+            "(a|b)*a(a|b)"
+    };
+
+    private static final String[] INPUTS = {
+            "", "a", "b", "c", "ab", "ac", "bc", "abc", "acc", "abcabc", "def", "aef", "abb", "aab", "axyb", "ba", "bab",
+            "abab", "aaa"
+    };
+
+    @Test
+    public void glushkovAutomaton_shouldHaveOneStatePerPositionPlusOne() {
+        CharClasses charClasses =
+                CharClasses.builder()
+                        .withDistinguishedChars(Collections.singletonList('a'))
+                        .withDistinguishedChars(Collections.singletonList('b'))
+                        .build();
+        RegexNode syntaxTree = new RegexParser().apply("(a|b)*ab.");
+
+        Automaton<Integer> automaton = new GlushkovConstruction(charClasses).apply(syntaxTree);
+
+        assertThat(automaton.getNumStates(), is(6));
+        assertThat(automaton.getEpsilonTransitions().isEmpty(), is(true));
+    }
+
+    @Test
+    public void glushkovRegex_shouldMatchSameInputsAsThompsonRegex() {
+        for (String pattern : PATTERNS) {
+            Regex thompson = Regex.builder().withPattern(pattern).build();
+            Regex glushkov = Regex.builder().withPattern(pattern).withGlushkovConstruction(true).build();
+            Regex lazyGlushkov =
+                    Regex.builder()
+                            .withPattern(pattern)
+                            .withGlushkovConstruction(true)
+                            .withLazyDeterminization(8)
+                            .build();
+            for (String input : INPUTS) {
+                assertThat(pattern + " on " + input, glushkov.matches(input), is(thompson.matches(input)));
+                assertThat(pattern + " on " + input, lazyGlushkov.matches(input), is(thompson.matches(input)));
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package personal.gokul2411s.regular_automata;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class LazyDfaTest {
+
+    // The subset construction of this pattern has 2^9 states.
+    private static final String EXPONENTIAL_PATTERN = "(a|b)*a(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)";
+
+    @Test
+    public void lazyDfa_shouldMatchSameInputsAsEagerDfa() {
+        Regex eager = Regex.builder().withPattern(EXPONENTIAL_PATTERN).build();
+        Regex lazy = Regex.builder().withPattern(EXPONENTIAL_PATTERN).withLazyDeterminization(1024).build();
+
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            String input = randomInput(random, 1 + random.nextInt(30));
+            assertThat(input, lazy.matches(input), is(eager.matches(input)));
+        }
+    }
+
+    @Test
+    public void lazyDfa_shouldStayCorrectWhenCacheThrashes() {
+        Regex eager = Regex.builder().withPattern(EXPONENTIAL_PATTERN).build();
+        Regex lazy = Regex.builder().withPattern(EXPONENTIAL_PATTERN).withLazyDeterminization(2).build();
+
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            String input = randomInput(random, 1 + random.nextInt(100));
+            assertThat(input, lazy.matches(input), is(eager.matches(input)));
+        }
+    }
+
+    @Test
+    public void lazyDfa_shouldRejectOnDeadState() {
+        Regex lazy = Regex.builder().withPattern("abc").withLazyDeterminization(16).build();
+        assertThat(lazy.matches("abc"), is(true));
+        assertThat(lazy.matches("abd"), is(false));
+        assertThat(lazy.matches("abcc"), is(false));
+        assertThat(lazy.matches(""), is(false));
+    }
+
+    private static String randomInput(Random random, int length) {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            input.append(random.nextBoolean() ? 'a' : 'b');
+        }
+        return input.toString();
+    }
+}
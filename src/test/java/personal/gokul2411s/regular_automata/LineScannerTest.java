@@ -0,0 +1,71 @@
+package personal.gokul2411s.regular_automata;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class LineScannerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void regex_shouldReportOffsetsOfMatchingLines() throws IOException {
+        Path file = file("ERROR one\nINFO two\nERROR three\n\nERROR");
+        Regex regex = Regex.builder().withPattern("ERROR.*").build();
+
+        assertThat(matchingLines(regex, file), is(Arrays.asList("0-9", "19-30", "32-37")));
+    }
+
+    @Test
+    public void lineScanner_shouldHandleLinesCutBySegments() throws IOException {
+        Path file = file("ab\nxxxxxxxxxxxxxxxxab\nab\nabab\nb");
+        Utf8Dfa dfa = new Utf8Compilation().apply(Regex.builder().withPattern(".*ab").build().getDfa());
+
+        for (int segmentSize = 1; segmentSize <= 8; segmentSize++) {
+            List<String> lines = new ArrayList<>();
+            new LineScanner(dfa, segmentSize).forEachMatchingLine(file, (start, end) -> lines.add(start + "-" + end));
+            assertThat(lines, is(Arrays.asList("0-2", "3-21", "22-24", "25-29")));
+        }
+    }
+
+    @Test
+    public void regexSet_shouldReportLinesMatchingAnyPattern() throws IOException {
+        Path file = file("warn\nok\ncaf\u00e9 error\n");
+        RegexSet regexSet = RegexSet.builder().withPattern("warn").withPattern(".*error").build();
+
+        List<String> lines = new ArrayList<>();
+        regexSet.forEachMatchingLine(file, (start, end) -> lines.add(start + "-" + end));
+
+        assertThat(lines, is(Arrays.asList("0-4", "8-19")));
+    }
+
+    @Test
+    public void emptyFile_shouldHaveNoMatchingLines() throws IOException {
+        Regex regex = Regex.builder().withPattern(".*").build();
+        assertThat(matchingLines(regex, file("")), is(new ArrayList<String>()));
+    }
+
+    private Path file(String contents) throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<String> matchingLines(Regex regex, Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        regex.forEachMatchingLine(file, (start, end) -> lines.add(start + "-" + end));
+        return lines;
+    }
+}
@@ -0,0 +1,29 @@
+package personal.gokul2411s.regular_automata;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class LiteralSearchTest {
+
+    @Test
+    public void literalSearch_shouldAgreeWithIndexOf() {
+        String[] literals = { "a", "ab", "aba", "bab", "abba" };
+        String text = "abbababaabbaab";
+        for (String literal : literals) {
+            LiteralSearch search = new LiteralSearch(literal);
+            for (int from = 0; from <= text.length(); from++) {
+                assertThat(literal + "@" + from, search.indexIn(text, from), is(text.indexOf(literal, from)));
+            }
+        }
+    }
+
+    @Test
+    public void literalSearch_shouldNotConfuseCharsSharingLowByte() {
+        LiteralSearch search = new LiteralSearch("a\u0161b");
+
+        assertThat(search.mightMatch("xxa\u0161bxx"), is(true));
+        assertThat(search.mightMatch("xxaabxx"), is(false));
+    }
+}
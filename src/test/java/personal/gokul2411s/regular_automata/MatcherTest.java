@@ -0,0 +1,121 @@
+package personal.gokul2411s.regular_automata;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class MatcherTest {
+
+    @Test
+    public void matcher_shouldAgreeWithMatchesWhateverTheChunking() {
+        Regex regex = Regex.builder().withPattern("(ab|c)*d.").build();
+        Regex lazyRegex = Regex.builder().withPattern("(ab|c)*d.").withLazyDeterminization(2).build();
+        String[] inputs = { "", "dx", "abcdx", "abcd", "abcabdxx", "cccccdz", "abd" };
+
+        for (String input : inputs) {
+            for (int chunkSize = 1; chunkSize <= 3; chunkSize++) {
+                Matcher matcher = regex.matcher();
+                Matcher lazyMatcher = lazyRegex.matcher();
+                char[] chars = input.toCharArray();
+                for (int off = 0; off < chars.length; off += chunkSize) {
+                    int len = Math.min(chunkSize, chars.length - off);
+                    matcher.feed(chars, off, len);
+                    lazyMatcher.feed(chars, off, len);
+                }
+                assertThat(input, matcher.isAccepting(), is(regex.matches(input)));
+                assertThat(input, lazyMatcher.isAccepting(), is(regex.matches(input)));
+            }
+        }
+    }
+
+    @Test
+    public void matcher_shouldReportAcceptanceAfterEveryChunk() {
+        Matcher matcher = Regex.builder().withPattern("(ab)*").build().matcher();
+
+        assertThat(matcher.isAccepting(), is(true));
+        matcher.feed(new char[] { 'a' });
+        assertThat(matcher.isAccepting(), is(false));
+        matcher.feed(new char[] { 'b', 'a', 'b' });
+        assertThat(matcher.isAccepting(), is(true));
+        matcher.feed(new char[] { 'b' });
+        assertThat(matcher.isAccepting(), is(false));
+        assertThat(matcher.isDead(), is(true));
+
+        matcher.reset().feed(new char[] { 'a', 'b' });
+        assertThat(matcher.isAccepting(), is(true));
+    }
+
+    @Test
+    public void matcher_shouldConsumeCharBuffers() {
+        Matcher matcher = Regex.builder().withPattern("a.*z").build().matcher();
+        CharBuffer first = CharBuffer.wrap("abc");
+        CharBuffer second = CharBuffer.wrap("xyz".toCharArray(), 1, 2);
+
+        matcher.feed(first).feed(second);
+
+        assertThat(matcher.isAccepting(), is(true));
+        assertThat(first.hasRemaining(), is(false));
+        assertThat(second.hasRemaining(), is(false));
+    }
+
+    @Test
+    public void matcher_shouldDecodeCharsSplitAcrossByteBuffers() {
+        Matcher matcher = Regex.builder().withPattern("caf\u00e9!").build().matcher();
+        byte[] bytes = "caf\u00e9!".getBytes(StandardCharsets.UTF_8);
+
+        matcher.feed(ByteBuffer.wrap(bytes, 0, 4));
+        assertThat(matcher.isAccepting(), is(false));
+        matcher.feed(ByteBuffer.wrap(bytes, 4, bytes.length - 4));
+        assertThat(matcher.isAccepting(), is(true));
+    }
+
+    @Test
+    public void invalidUtf8_shouldNotMatchLikeByteMatching() {
+        Regex regex = Regex.builder().withPattern("a.*").build();
+        byte[][] inputs = {
+                { 'a', (byte) 0xFF },
+                { 'a', (byte) 0xC3 },
+                { 'a', (byte) 0xC0, (byte) 0x80 },
+                { 'a', (byte) 0xED, (byte) 0xA0, (byte) 0x80 },
+                { 'a', (byte) 0xC3, (byte) 0xA9 },
+        };
+
+        for (byte[] input : inputs) {
+            Matcher matcher = regex.matcher().feed(ByteBuffer.wrap(input));
+            assertThat(Arrays.toString(input), matcher.isAccepting(), is(regex.matches(ByteBuffer.wrap(input))));
+        }
+        Matcher matcher = regex.matcher().feed(ByteBuffer.wrap(new byte[] { 'a', (byte) 0xFF, 'b' }));
+        assertThat(matcher.isDead(), is(true));
+        assertThat(matcher.reset().feed(ByteBuffer.wrap(new byte[] { 'a' })).isAccepting(), is(true));
+    }
+
+    @Test
+    public void matcher_shouldStopOnceAlwaysAccepting() {
+        Matcher matcher = Regex.builder().withPattern("ERROR.*").build().matcher();
+
+        matcher.feed("ERR".toCharArray());
+        assertThat(matcher.isAlwaysAccepting(), is(false));
+        matcher.feed("OR: disk full".toCharArray());
+        assertThat(matcher.isAlwaysAccepting(), is(true));
+        assertThat(matcher.isAccepting(), is(true));
+
+        CharBuffer rest = CharBuffer.wrap("more of the line");
+        matcher.feed(rest);
+        assertThat(rest.hasRemaining(), is(false));
+        assertThat(matcher.isAccepting(), is(true));
+    }
+
+    @Test
+    public void lazyMatcher_shouldDieOnceNoFinalStateIsReachable() {
+        Matcher matcher = Regex.builder().withPattern("ab").withLazyDeterminization(2).build().matcher();
+
+        matcher.feed("b".toCharArray());
+        assertThat(matcher.isDead(), is(true));
+    }
+}
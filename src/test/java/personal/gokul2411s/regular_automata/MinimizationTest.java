@@ -0,0 +1,96 @@
+package personal.gokul2411s.regular_automata;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static personal.gokul2411s.regular_automata.AutomatonFactory.*;
+
+public class MinimizationTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void minimization_shouldMergeEquivalentStates() {
+        // (a|b)*abb, whose minimal automaton has 4 states.
+        Automaton<Character> aOrB = unioned(automatonAcceptingSingleSymbol('a'), automatonAcceptingSingleSymbol('b'));
+        Automaton<Character> automaton =
+                concatenated(
+                        concatenated(kleeneStarred(aOrB), automatonAcceptingSingleSymbol('a')),
+                        concatenated(automatonAcceptingSingleSymbol('b'), automatonAcceptingSingleSymbol('b')));
+
+        Automaton<Character> determinizedAutomaton = determinized(automaton);
+        Automaton<Character> minimizedAutomaton = minimized(determinizedAutomaton);
+
+        assertThat(minimizedAutomaton.getNumStates(), is(4));
+        assertThat(minimizedAutomaton.getInitialState(), is(0));
+        for (String input : new String[] { "", "abb", "aabb", "babb", "ab", "abba", "bbb", "ababb" }) {
+            Character[] symbols = input.chars().mapToObj(c -> (char) c).toArray(Character[]::new);
+            assertThat(input, minimizedAutomaton.accepts(symbols), is(determinizedAutomaton.accepts(symbols)));
+        }
+    }
+
+    @Test
+    public void minimization_shouldDropStatesThatCannotReachFinalState() {
+        Automaton<Character> automaton =
+                Automaton.<Character>builder()
+                        .withNumStates(4)
+                        .withInitialState(0)
+                        .withFinalState(1)
+                        .withTransition(0, 'a', 1)
+                        .withTransition(0, 'b', 2)
+                        .withTransition(2, 'b', 3)
+                        .build();
+
+        Automaton<Character> minimizedAutomaton = minimized(automaton);
+
+        assertThat(minimizedAutomaton.getNumStates(), is(2));
+        assertThat(minimizedAutomaton.accepts(new Character[] { 'a' }), is(true));
+        assertThat(minimizedAutomaton.accepts(new Character[] { 'b' }), is(false));
+    }
+
+    @Test
+    public void minimization_shouldHandleEmptyLanguage() {
+        Automaton<Character> automaton =
+                Automaton.<Character>builder()
+                        .withNumStates(2)
+                        .withTransition(0, 'a', 1)
+                        .build();
+
+        Automaton<Character> minimizedAutomaton = minimized(automaton);
+
+        assertThat(minimizedAutomaton.getNumStates(), is(1));
+        assertThat(minimizedAutomaton.getFinalStates().isEmpty(), is(true));
+    }
+
+    @Test
+    public void minimization_shouldMergeStatesWithEquivalentRangeTransitions() {
+        Automaton<Character> automaton =
+                Automaton.<Character>builder()
+                        .withNumStates(4)
+                        .withInitialState(0)
+                        .withFinalState(3)
+                        .withRangeTransition(0, 'a', 'm', 1)
+                        .withRangeTransition(0, 'n', 'z', 2)
+                        .withRangeTransition(1, '0', '9', 3)
+                        .withRangeTransition(2, '0', '4', 3)
+                        .withRangeTransition(2, '5', '9', 3)
+                        .build();
+
+        Automaton<Character> minimizedAutomaton = minimized(automaton);
+
+        assertThat(minimizedAutomaton.getNumStates(), is(3));
+        assertThat(minimizedAutomaton.accepts(new Character[] { 'b', '7' }), is(true));
+        assertThat(minimizedAutomaton.accepts(new Character[] { 'x', '2' }), is(true));
+        assertThat(minimizedAutomaton.accepts(new Character[] { 'x', 'x' }), is(false));
+    }
+
+    @Test
+    public void ifNotDeterministic_minimization_shouldThrowException() {
+        thrown.expect(InvalidAutomatonException.class);
+        minimized(concatenated(automatonAcceptingSingleSymbol('a'), automatonAcceptingSingleSymbol('b')));
+    }
+}
@@ -0,0 +1,127 @@
+package personal.gokul2411s.regular_automata;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static personal.gokul2411s.regular_automata.AutomatonFactory.*;
+
+public class ParallelDeterminizationTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterClass
+    public static void shutDownPool() {
+        POOL.shutdown();
+    }
+
+    @Test
+    public void parallelDeterminization_shouldAgreeWithSequentialDeterminization() {
+        Automaton<Character> automaton = union();
+
+        Automaton<Character> sequential = determinized(automaton);
+        Automaton<Character> parallel = new ParallelDeterminization<Character>(POOL).apply(automaton);
+
+        assertThat(parallel.isDeterministic(), is(true));
+        assertThat(parallel.getEpsilonTransitions().size(), is(0));
+        assertThat(parallel.getNumStates(), is(sequential.getNumStates()));
+        // Both share the expansion step and number new states in the same order.
+        assertThat(parallel, is(sequential));
+        for (List<Character> input : inputs(Arrays.asList('a', 'b', 'c', 'x'), 7)) {
+            assertThat(input.toString(), parallel.accepts(input), is(sequential.accepts(input)));
+        }
+    }
+
+    @Test
+    public void parallelDeterminization_shouldNotDependOnTiming() {
+        Automaton<Character> automaton = union();
+
+        Automaton<Character> first = new ParallelDeterminization<Character>(POOL).apply(automaton);
+        Automaton<Character> second = new ParallelDeterminization<Character>(POOL).apply(automaton);
+
+        assertThat(second, is(first));
+    }
+
+    @Test
+    public void parallelDeterminization_shouldReportTheSameMemberStates() {
+        Automaton<Character> automaton = union();
+
+        List<Set<Integer>> sequentialMembers = new ArrayList<>();
+        new Determinization<Character>().apply(automaton, sequentialMembers);
+        List<Set<Integer>> parallelMembers = new ArrayList<>();
+        new ParallelDeterminization<Character>(POOL).apply(automaton, parallelMembers);
+
+        assertThat(new HashSet<>(parallelMembers).size(), is(parallelMembers.size()));
+        assertThat(parallelMembers, is(sequentialMembers));
+    }
+
+    @Test
+    public void parallelDeterminization_shouldDropDeadStates() {
+        Automaton<Character> automaton =
+                Automaton.<Character>builder()
+                        .withNumStates(3)
+                        .withInitialState(0)
+                        .withFinalState(1)
+                        .withTransition(0, 'a', 1)
+                        .withTransition(0, 'b', 2)
+                        .build();
+
+        Automaton<Character> parallel = new ParallelDeterminization<Character>(POOL).apply(automaton);
+
+        assertThat(parallel.getNumStates(), is(2));
+        assertThat(parallel.accepts(new Character[] { 'a' }), is(true));
+        assertThat(parallel.accepts(new Character[] { 'b' }), is(false));
+    }
+
+    @Test
+    public void regexSet_shouldMatchTheSameWithParallelDeterminization() {
+        List<String> patterns = Arrays.asList("ab*", "a.", "(a|b)(a|b)", "c", ".*c");
+        RegexSet sequential = RegexSet.builder().withPatterns(patterns).build();
+        RegexSet parallel = RegexSet.builder().withPatterns(patterns).withParallelDeterminization(true).build();
+
+        for (String input : Arrays.asList("", "a", "ab", "abb", "ax", "ba", "c", "xyc", "bab")) {
+            assertThat(input, parallel.matchingPatterns(input), is(sequential.matchingPatterns(input)));
+        }
+    }
+
+    /**
+     * Union of patterns whose determinization has many states per level, with ranges overlapping the symbols.
+     */
+    private static Automaton<Character> union() {
+        Automaton<Character> aOrB = unioned(automatonAcceptingSingleSymbol('a'), automatonAcceptingSingleSymbol('b'));
+        List<Automaton<Character>> automata = new ArrayList<>();
+        for (int n = 2; n <= 5; n++) {
+            List<Automaton<Character>> parts = new ArrayList<>();
+            parts.add(kleeneStarred(aOrB));
+            parts.add(automatonAcceptingSingleSymbol('a'));
+            for (int i = 0; i < n; i++) {
+                parts.add(aOrB);
+            }
+            automata.add(concatenated(parts));
+        }
+        automata.add(concatenated(automatonAcceptingRange('a', 'x'), kleeneStarred(automatonAcceptingAllChars())));
+        automata.add(
+                concatenated(kleeneStarred(automatonAcceptingRange('b', 'c')), automatonAcceptingSingleSymbol('x')));
+        return unioned(automata);
+    }
+
+    private static List<List<Character>> inputs(List<Character> alphabet, int maxLength) {
+        List<List<Character>> inputs = new ArrayList<>();
+        inputs.add(Collections.emptyList());
+        for (int start = 0; start < inputs.size(); start++) {
+            if (inputs.get(start).size() == maxLength) {
+                continue;
+            }
+            for (char c : alphabet) {
+                List<Character> input = new ArrayList<>(inputs.get(start));
+                input.add(c);
+                inputs.add(input);
+            }
+        }
+        return inputs;
+    }
+}
@@ -0,0 +1,93 @@
+package personal.gokul2411s.regular_automata;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ParallelScanTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterClass
+    public static void shutDownPool() {
+        POOL.shutdown();
+    }
+
+    @Test
+    public void parallelMatching_shouldAgreeWithSequentialMatching() {
+        String[] patterns = { "(ab|ba)*", ".*abc.*", "a*b*", "(a|b)*a(a|b)(a|b)", "(a|b)*c*" };
+        Random random = new Random(17);
+        for (String pattern : patterns) {
+            DenseDfa dfa = denseDfa(pattern);
+            for (int trial = 0; trial < 50; trial++) {
+                String input = randomInput(random, random.nextInt(200));
+                for (int chunkSize : new int[] { 1, 3, 16, 1000 }) {
+                    assertThat(
+                            pattern + " on " + input + " in chunks of " + chunkSize,
+                            dfa.matchesInParallel(input, POOL, chunkSize),
+                            is(dfa.matches(input)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void parallelMatching_shouldStopAtDeadStatesAndAcceptingSinks() {
+        DenseDfa dfa = denseDfa("ab.*");
+
+        assertThat(dfa.matchesInParallel("abcabcabcabc", POOL, 2), is(true));
+        assertThat(dfa.matchesInParallel("bacabcabcabc", POOL, 2), is(false));
+        assertThat(dfa.matchesInParallel("", POOL, 2), is(false));
+    }
+
+    @Test
+    public void parallelByteMatching_shouldAgreeWithSequentialMatchingAndLeaveBufferAlone() {
+        Regex regex = Regex.builder().withPattern("(\u00E9|a)*\u20AC").build();
+        Utf8Dfa utf8Dfa = new Utf8Compilation().apply(denseDfa("(\u00E9|a)*\u20AC"));
+        String[] inputs = { "\u00E9a\u00E9\u20AC", "\u00E9a\u00E9", "aaaaaaaa\u20AC", "\u20AC\u20AC" };
+        for (String input : inputs) {
+            ByteBuffer buffer = ByteBuffer.wrap(("x" + input).getBytes(StandardCharsets.UTF_8));
+            buffer.position(1);
+            for (int chunkSize : new int[] { 1, 2, 5 }) {
+                assertThat(input, utf8Dfa.matchesInParallel(buffer, POOL, chunkSize), is(regex.matches(input)));
+                assertThat(buffer.position(), is(1));
+            }
+        }
+    }
+
+    @Test
+    public void regex_shouldMatchLongInputsInParallel() {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            input.append("ab");
+        }
+        Regex regex = Regex.builder().withPattern("(ab)*").withLazyDeterminization(4).build();
+
+        assertThat(regex.matchesInParallel(input), is(true));
+        assertThat(regex.matchesInParallel(input.append('a')), is(false));
+        ByteBuffer buffer = ByteBuffer.allocateDirect(input.length());
+        buffer.put(input.toString().getBytes(StandardCharsets.UTF_8)).flip();
+        assertThat(regex.matchesInParallel(buffer), is(false));
+        buffer.limit(buffer.limit() - 1);
+        assertThat(regex.matchesInParallel(buffer), is(true));
+    }
+
+    private static DenseDfa denseDfa(String pattern) {
+        return Regex.builder().withPattern(pattern).build().getDfa();
+    }
+
+    private static String randomInput(Random random, int length) {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            input.append("abc".charAt(random.nextInt(3)));
+        }
+        return input.toString();
+    }
+}
@@ -0,0 +1,125 @@
+package personal.gokul2411s.regular_automata;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RegexCacheTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void cache_shouldReturnSameRegexForSamePatternAndOptions() {
+        RegexCache cache = new RegexCache(1 << 20);
+
+        Regex regex = cache.get("a(b|c)*");
+        assertThat(cache.get("a(b|c)*"), is(sameInstance(regex)));
+        assertThat(cache.get(Regex.builder().withPattern("a(b|c)*")), is(sameInstance(regex)));
+        assertThat(
+                cache.get(Regex.builder().withPattern("a(b|c)*").withMinimization(false)),
+                is(not(sameInstance(regex))));
+        assertThat(
+                cache.get(Regex.builder().withPattern("a(b|c)*").withLazyDeterminization(4)).getLazyDfa() != null,
+                is(true));
+
+        assertThat(cache.stats().hitCount(), is(2L));
+        assertThat(cache.stats().missCount(), is(3L));
+        assertThat(cache.size(), is(3L));
+    }
+
+    @Test
+    public void cache_shouldEvictLeastRecentlyUsedRegexesWhenFull() {
+        // Room for three of the regexes, whose estimates differ slightly with their char classes.
+        long regexBytes = 0;
+        for (String pattern : Arrays.asList("abc", "abd", "abe", "abf")) {
+            regexBytes = Math.max(regexBytes, RegexCache.estimatedBytes(Regex.builder().withPattern(pattern).build()));
+        }
+        RegexCache cache = new RegexCache(3 * regexBytes);
+
+        cache.get("abc");
+        cache.get("abd");
+        cache.get("abe");
+        cache.get("abc");
+        cache.get("abf");
+
+        assertThat(cache.size(), is(3L));
+        assertThat(cache.stats().evictionCount(), is(1L));
+        long hits = cache.stats().hitCount();
+        cache.get("abc");
+        assertThat(cache.stats().hitCount(), is(hits + 1));
+        long misses = cache.stats().missCount();
+        cache.get("abd");
+        assertThat(cache.stats().missCount(), is(misses + 1));
+    }
+
+    @Test
+    public void cache_shouldKeepRegexTakingTheWholeBudget() {
+        long regexBytes = RegexCache.estimatedBytes(Regex.builder().withPattern("abc").build());
+        RegexCache cache = new RegexCache(regexBytes);
+
+        Regex regex = cache.get("abc");
+
+        assertThat(cache.get("abc"), is(sameInstance(regex)));
+        assertThat(cache.stats().hitCount(), is(1L));
+        assertThat(cache.size(), is(1L));
+    }
+
+    @Test
+    public void estimatedBytes_shouldGrowWithTheAutomaton() {
+        long small = RegexCache.estimatedBytes(Regex.builder().withPattern("ab").build());
+        long large = RegexCache.estimatedBytes(Regex.builder().withPattern("(a|b)*a(a|b)(a|b)(a|b)(a|b)").build());
+
+        assertThat(large > small, is(true));
+    }
+
+    @Test
+    public void cache_shouldBuildEachRegexOnceUnderConcurrentRequests() throws Exception {
+        RegexCache cache = new RegexCache(1 << 20);
+        int numThreads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Regex>> futures = new ArrayList<>();
+            for (int i = 0; i < numThreads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get("(a|b)*a(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)");
+                }));
+            }
+            start.countDown();
+            Regex first = futures.get(0).get();
+            for (Future<Regex> future : futures) {
+                assertThat(future.get(), is(sameInstance(first)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(cache.stats().loadCount(), is(1L));
+    }
+
+    @Test
+    public void invalidPattern_shouldThrowAndNotBeCached() {
+        RegexCache cache = new RegexCache(1 << 20);
+
+        thrown.expect(InvalidRegexException.class);
+        try {
+            cache.get("a(bc");
+        } finally {
+            assertThat(cache.size(), is(0L));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package personal.gokul2411s.regular_automata;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RegexSetTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void regexSet_shouldReportEveryMatchingPattern() {
+        RegexSet regexSet =
+                RegexSet.builder().withPatterns(Arrays.asList("ab*", "a.", "(a|b)(a|b)", "c")).build();
+
+        assertThat(regexSet.matchingPatterns("ab"), is(bits(0, 1, 2)));
+        assertThat(regexSet.matchingPatterns("abb"), is(bits(0)));
+        assertThat(regexSet.matchingPatterns("ax"), is(bits(1)));
+        assertThat(regexSet.matchingPatterns("ba"), is(bits(2)));
+        assertThat(regexSet.matchingPatterns("c"), is(bits(3)));
+        assertThat(regexSet.matchingPatterns("a"), is(bits(0)));
+        assertThat(regexSet.matchingPatterns("bab"), is(bits()));
+        assertThat(regexSet.matchingPatterns(""), is(bits()));
+    }
+
+    @Test
+    public void regexSet_shouldAgreeWithSingleRegexes() {
+        String[] patterns = { "", "a*", "(ab)*", "a.b", ".*c", "abc|abd" };
+        RegexSet regexSet = RegexSet.builder().withPatterns(Arrays.asList(patterns)).build();
+        String[] inputs = { "", "a", "aa", "ab", "abab", "axb", "abc", "abd", "xyzc", "abcd" };
+
+        for (String input : inputs) {
+            BitSet expected = new BitSet();
+            for (int i = 0; i < patterns.length; i++) {
+                if (Regex.builder().withPattern(patterns[i]).build().matches(input)) {
+                    expected.set(i);
+                }
+            }
+            assertThat(input, regexSet.matchingPatterns(input), is(expected));
+            assertThat(input, regexSet.matchesAny(input), is(!expected.isEmpty()));
+        }
+    }
+
+    @Test
+    public void duplicatePatterns_shouldBothBeReported() {
+        RegexSet regexSet = RegexSet.builder().withPattern("ab").withPattern("ab").build();
+        assertThat(regexSet.matchingPatterns("ab"), is(bits(0, 1)));
+    }
+
+    @Test
+    public void emptyRegexSet_shouldThrowException() {
+        thrown.expect(IllegalStateException.class);
+        RegexSet.builder().build();
+    }
+
+    private static BitSet bits(int... indices) {
+        BitSet bits = new BitSet();
+        for (int index : indices) {
+            bits.set(index);
+        }
+        return bits;
+    }
+}
@@ -4,6 +4,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.Arrays;
+
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
@@ -167,4 +169,59 @@ public class RegexTest {
             assertThat(regex.matches(base + "aa"), is(true));
         }
     }
+
+    @Test
+    public void dotOperatorBetweenLiterals_shouldMatchAnyChar() {
+        Regex regex = Regex.builder().withPattern("a..b").build();
+        assertThat(regex.matches("axyb"), is(true));
+        assertThat(regex.matches("abab"), is(true));
+        assertThat(regex.matches("a" + Character.MAX_VALUE + Character.MIN_VALUE + "b"), is(true));
+        assertThat(regex.matches("axb"), is(false));
+        assertThat(regex.matches("axybb"), is(false));
+    }
+
+    @Test
+    public void compiledRegex_shouldHaveOneCharClassPerLiteralPlusOneForOtherChars() {
+        Regex regex = Regex.builder().withPattern("(ab)*.a").build();
+        assertThat(regex.getDfa().getCharClasses().getNumClasses(), is(3));
+    }
+
+    @Test
+    public void find_shouldReportLeftmostLongestMatch() {
+        Regex regex = Regex.builder().withPattern("ab*").build();
+
+        assertThat(regex.find("xxabbbyab"), is(new Match(2, 6)));
+        assertThat(regex.find("xxabbbyab", 3), is(new Match(7, 9)));
+        assertThat(regex.find("xxx"), is((Match) null));
+    }
+
+    @Test
+    public void find_shouldPreferLeftmostMatchOverMatchEndingFirst() {
+        Regex regex = Regex.builder().withPattern("abcd|c").build();
+        assertThat(regex.find("xabcd"), is(new Match(1, 5)));
+        assertThat(regex.find("xabcd", 2), is(new Match(3, 4)));
+    }
+
+    @Test
+    public void findAll_shouldReportSuccessiveMatches() {
+        Regex regex = Regex.builder().withPattern(".*error.*|warn").build();
+        assertThat(regex.findAll("a warn, an error"), is(Arrays.asList(new Match(0, 16))));
+
+        Regex literal = Regex.builder().withPattern("aa").build();
+        assertThat(literal.findAll("aaaaa"), is(Arrays.asList(new Match(0, 2), new Match(2, 4))));
+    }
+
+    @Test
+    public void findAll_shouldStepOverEmptyMatches() {
+        Regex regex = Regex.builder().withPattern("a*").build();
+        assertThat(
+                regex.findAll("baab"),
+                is(Arrays.asList(new Match(0, 0), new Match(1, 3), new Match(3, 3), new Match(4, 4))));
+    }
+
+    @Test
+    public void find_shouldWorkWithLazyDeterminization() {
+        Regex regex = Regex.builder().withPattern("(a|b)*c").withLazyDeterminization(4).build();
+        assertThat(regex.find("xxababcab"), is(new Match(2, 7)));
+    }
 }
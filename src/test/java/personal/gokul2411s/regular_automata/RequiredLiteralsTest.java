@@ -0,0 +1,37 @@
+package personal.gokul2411s.regular_automata;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RequiredLiteralsTest {
+
+    @Test
+    public void literalRuns_shouldBeRequiredAsAWhole() {
+        assertThat(requiredLiterals(".*error.*"), is(ImmutableSet.of("error")));
+        assertThat(requiredLiterals("ab.cde*f"), is(ImmutableSet.of("ab")));
+        assertThat(requiredLiterals(".x.yz."), is(ImmutableSet.of("yz")));
+    }
+
+    @Test
+    public void alternation_shouldRequireOneOfItsBranches() {
+        assertThat(requiredLiterals(".*(warn|error).*"), is(ImmutableSet.of("warn", "error")));
+        assertThat(requiredLiterals(".*(warn|.).*"), is(Collections.emptySet()));
+        assertThat(requiredLiterals("(a|)"), is(Collections.emptySet()));
+    }
+
+    @Test
+    public void repetition_shouldRequireNothing() {
+        assertThat(requiredLiterals("(abc)*"), is(Collections.emptySet()));
+        assertThat(requiredLiterals("."), is(Collections.emptySet()));
+    }
+
+    private static Set<String> requiredLiterals(String pattern) {
+        return new RequiredLiterals().apply(new RegexParser().apply(pattern));
+    }
+}
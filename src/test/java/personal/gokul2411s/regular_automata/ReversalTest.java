@@ -0,0 +1,54 @@
+package personal.gokul2411s.regular_automata;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static personal.gokul2411s.regular_automata.AutomatonFactory.*;
+
+public class ReversalTest {
+
+    @Test
+    public void reversedAutomaton_shouldAcceptReversedInputs() {
+        Automaton<Character> automaton =
+                concatenated(
+                        automatonAcceptingSingleSymbol('a'),
+                        concatenated(
+                                kleeneStarred(automatonAcceptingSingleSymbol('b')),
+                                automatonAcceptingSingleSymbol('c')));
+
+        Automaton<Character> reversedAutomaton = reversed(automaton);
+
+        assertThat(reversedAutomaton.accepts(new Character[] { 'c', 'a' }), is(true));
+        assertThat(reversedAutomaton.accepts(new Character[] { 'c', 'b', 'b', 'a' }), is(true));
+        assertThat(reversedAutomaton.accepts(new Character[] { 'a', 'b', 'c' }), is(false));
+        assertThat(reversedAutomaton.accepts(new Character[] { }), is(false));
+    }
+
+    @Test
+    public void reversedAutomaton_shouldFlipRangeTransitions() {
+        Automaton<Character> automaton =
+                concatenated(automatonAcceptingRange('a', 'f'), automatonAcceptingSingleSymbol('x'));
+
+        Automaton<Character> reversedAutomaton = reversed(automaton);
+
+        assertThat(reversedAutomaton.accepts(new Character[] { 'x', 'c' }), is(true));
+        assertThat(reversedAutomaton.accepts(new Character[] { 'x', 'g' }), is(false));
+        assertThat(reversedAutomaton.accepts(new Character[] { 'c', 'x' }), is(false));
+    }
+
+    @Test
+    public void reversingTwice_shouldPreserveLanguage() {
+        Automaton<Character> automaton =
+                unioned(
+                        concatenated(automatonAcceptingSingleSymbol('a'), automatonAcceptingSingleSymbol('b')),
+                        kleeneStarred(automatonAcceptingSingleSymbol('c')));
+
+        Automaton<Character> twiceReversedAutomaton = reversed(reversed(automaton));
+
+        assertThat(twiceReversedAutomaton.accepts(new Character[] { 'a', 'b' }), is(true));
+        assertThat(twiceReversedAutomaton.accepts(new Character[] { }), is(true));
+        assertThat(twiceReversedAutomaton.accepts(new Character[] { 'c', 'c' }), is(true));
+        assertThat(twiceReversedAutomaton.accepts(new Character[] { 'b', 'a' }), is(false));
+    }
+}
@@ -0,0 +1,64 @@
+package personal.gokul2411s.regular_automata;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class StateSetTableTest {
+
+    @Test
+    public void intern_shouldNumberSetsInOrderAndIgnoreInsertionOrder() {
+        StateSetTable table = new StateSetTable();
+
+        assertThat(table.intern(members(3, 1, 2)), is(0));
+        assertThat(table.intern(members(4)), is(1));
+        assertThat(table.intern(members(2, 3, 1)), is(0));
+        assertThat(table.intern(members()), is(2));
+        assertThat(table.size(), is(3));
+        assertThat(table.get(0), is(new StateSet(new int[] { 1, 2, 3 })));
+    }
+
+    @Test
+    public void find_shouldNotAddSets() {
+        StateSetTable table = new StateSetTable();
+        table.intern(members(1, 2));
+
+        assertThat(table.find(members(2, 1)), is(0));
+        assertThat(table.find(members(1)), is(-1));
+        assertThat(table.size(), is(1));
+    }
+
+    @Test
+    public void table_shouldKeepIdsWhenGrowing() {
+        StateSetTable table = new StateSetTable();
+        for (int i = 0; i < 1000; i++) {
+            assertThat(table.intern(members(i, i + 1)), is(i));
+        }
+        for (int i = 999; i >= 0; i--) {
+            assertThat(table.intern(members(i + 1, i)), is(i));
+        }
+        assertThat(table.size(), is(1000));
+    }
+
+    @Test
+    public void clear_shouldForgetEverySet() {
+        StateSetTable table = new StateSetTable();
+        table.intern(members(1));
+        table.intern(members(2));
+
+        table.clear();
+
+        assertThat(table.size(), is(0));
+        assertThat(table.find(members(1)), is(-1));
+        assertThat(table.intern(members(2)), is(0));
+    }
+
+    private static SparseIntSet members(int... states) {
+        SparseIntSet members = new SparseIntSet(1001);
+        for (int state : states) {
+            members.add(state);
+        }
+        return members;
+    }
+}
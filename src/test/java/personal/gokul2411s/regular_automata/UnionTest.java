@@ -2,6 +2,9 @@ package personal.gokul2411s.regular_automata;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static personal.gokul2411s.regular_automata.AutomatonFactory.automatonAcceptingSingleSymbol;
@@ -22,4 +25,21 @@ public class UnionTest {
         Character[] input2 = { 'b' };
         assertThat(unionedAutomaton.accepts(input2), is(true));
     }
+
+    @Test
+    public void unionedAutomaton_shouldAcceptUnionOfAllInputLanguages() {
+        List<Automaton<Character>> automata = new ArrayList<>();
+        for (char c = 'a'; c <= 'z'; c++) {
+            automata.add(automatonAcceptingSingleSymbol(c));
+        }
+
+        Automaton<Character> unionedAutomaton = unioned(automata);
+
+        assertThat(unionedAutomaton.getNumStates(), is(2 * 26 + 2));
+        for (char c = 'a'; c <= 'z'; c++) {
+            assertThat(unionedAutomaton.accepts(new Character[] { c }), is(true));
+        }
+        assertThat(unionedAutomaton.accepts(new Character[] { 'A' }), is(false));
+        assertThat(unionedAutomaton.accepts(new Character[] { 'a', 'b' }), is(false));
+    }
 }
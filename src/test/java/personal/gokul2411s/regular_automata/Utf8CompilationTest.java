@@ -0,0 +1,73 @@
+package personal.gokul2411s.regular_automata;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class Utf8CompilationTest {
+
+    private static final String GRINNING_FACE = "\uD83D\uDE00";
+
+    @Test
+    public void byteMatching_shouldAgreeWithCharMatching() {
+        String[] patterns = {
+                "abc", "a.c", ".*", "(\u00E9|\u20AC)*x", "..", ".", "a" + GRINNING_FACE + ".", "\u0800.\uFFFF"
+        };
+        String[] inputs = {
+                "", "abc", "axc", "a\u00E9c", "a\u20ACc", "\u00E9\u20AC\u00E9x", "x", GRINNING_FACE,
+                "a" + GRINNING_FACE + "b", "a" + GRINNING_FACE + GRINNING_FACE, "\u0800\u07FF\uFFFF",
+                "\u0800\uD7FF\uFFFF", "\u0800" + GRINNING_FACE + "\uFFFF"
+        };
+        for (String pattern : patterns) {
+            for (boolean lazy : new boolean[] { false, true }) {
+                Regex.RegexBuilder builder = Regex.builder().withPattern(pattern);
+                if (lazy) {
+                    builder.withLazyDeterminization(4);
+                }
+                Regex regex = builder.build();
+                for (String input : inputs) {
+                    byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+                    assertThat(
+                            pattern + " on " + input,
+                            regex.matches(bytes, 0, bytes.length),
+                            is(regex.matches(input)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void byteMatching_shouldRespectOffsetAndBufferPosition() {
+        Regex regex = Regex.builder().withPattern("\u00E9t\u00E9").build();
+        byte[] bytes = "l'\u00E9t\u00E9!".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(regex.matches(bytes, 2, 5), is(true));
+        assertThat(regex.matches(bytes, 2, 4), is(false));
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.position(2).limit(7);
+        assertThat(regex.matches(buffer), is(true));
+        assertThat(buffer.position(), is(2));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        direct.position(2).limit(7);
+        assertThat(regex.matches(direct), is(true));
+    }
+
+    @Test
+    public void invalidUtf8_shouldNotMatch() {
+        Regex regex = Regex.builder().withPattern(".*").build();
+
+        assertThat(regex.matches(new byte[] { 'a', (byte) 0xC3 }, 0, 2), is(false));
+        assertThat(regex.matches(new byte[] { (byte) 0x80 }, 0, 1), is(false));
+        // Overlong encoding of '/'.
+        assertThat(regex.matches(new byte[] { (byte) 0xC0, (byte) 0xAF }, 0, 2), is(false));
+        // Encoded surrogate.
+        assertThat(regex.matches(new byte[] { (byte) 0xED, (byte) 0xA0, (byte) 0x80 }, 0, 3), is(false));
+    }
+}